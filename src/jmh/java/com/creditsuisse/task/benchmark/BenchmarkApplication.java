@@ -0,0 +1,31 @@
+package com.creditsuisse.task.benchmark;
+
+import com.creditsuisse.task.CreditsuisseApp;
+import com.creditsuisse.task.service.BookAvailabilityService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Boots the application without a web server against the test configuration, which uses an in-memory H2 database.
+ * Set {@code -Dspring.datasource.url=...} to run against another database; a benchmark can pass its own properties too.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(CreditsuisseApp.class)
+            .web(WebApplicationType.NONE)
+            .properties("logging.level.com.creditsuisse.task=WARN")
+            .properties(properties)
+            .run();
+    }
+
+    static void seed(ConfigurableApplicationContext context, CatalogSeeder seeder) {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        transactionTemplate.executeWithoutResult(status -> seeder.seed());
+        transactionTemplate.executeWithoutResult(status -> context.getBean(BookAvailabilityService.class).rebuild());
+    }
+}
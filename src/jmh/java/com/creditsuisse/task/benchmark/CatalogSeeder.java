@@ -0,0 +1,108 @@
+package com.creditsuisse.task.benchmark;
+
+import com.creditsuisse.task.repository.IdGeneratorRepository;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Seeds a synthetic catalog with predictable ids, so benchmarks can pick entities without querying for them.
+ * <p>
+ * Book {@code b} (1-based) owns inventory items {@code (b - 1) * copiesPerBook + 1} to {@code b * copiesPerBook}.
+ * Every inventory item has {@code rentalsPerCopy} returned rentals, and odd inventory items have one more, open, rental.
+ * The id generator is then moved past the seeded ids, so that entities created by the benchmarks do not collide.
+ */
+public class CatalogSeeder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int books;
+
+    private final int copiesPerBook;
+
+    private final int rentalsPerCopy;
+
+    public CatalogSeeder(JdbcTemplate jdbcTemplate, int books, int copiesPerBook, int rentalsPerCopy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.books = books;
+        this.copiesPerBook = copiesPerBook;
+        this.rentalsPerCopy = rentalsPerCopy;
+    }
+
+    public void seed() {
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (long book = 1; book <= books; book++) {
+            rows.add(new Object[] { book, "Benchmark book " + book, "isbn-" + book });
+            rows = flushIfFull("insert into book (id, title, isbn) values (?, ?, ?)", rows);
+        }
+        flush("insert into book (id, title, isbn) values (?, ?, ?)", rows);
+
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (long patron = 1; patron <= books; patron++) {
+            rows.add(new Object[] { patron, "Benchmark patron " + patron, Date.valueOf(LocalDate.of(1980, 1, 1)), "+0-" + patron });
+            rows = flushIfFull("insert into patron (id, name, date_of_birth, phone_number) values (?, ?, ?, ?)", rows);
+        }
+        flush("insert into patron (id, name, date_of_birth, phone_number) values (?, ?, ?, ?)", rows);
+
+        rows = new ArrayList<>(BATCH_SIZE);
+        for (long inventory = 1; inventory <= getInventoryCount(); inventory++) {
+            rows.add(new Object[] { inventory, getBookId(inventory) });
+            rows = flushIfFull("insert into inventory (id, book_id) values (?, ?)", rows);
+        }
+        flush("insert into inventory (id, book_id) values (?, ?)", rows);
+
+        String insertRental = "insert into rental (id, rental_date, return_date, patron_id, inventory_id) values (?, ?, ?, ?, ?)";
+        rows = new ArrayList<>(BATCH_SIZE);
+        long rental = 0;
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (long inventory = 1; inventory <= getInventoryCount(); inventory++) {
+            for (int i = 0; i < rentalsPerCopy; i++) {
+                LocalDate rentalDate = start.plusDays(i * 14L);
+                long patron = (inventory + i) % books + 1;
+                rows.add(new Object[] { ++rental, Date.valueOf(rentalDate), Date.valueOf(rentalDate.plusDays(7)), patron, inventory });
+                rows = flushIfFull(insertRental, rows);
+            }
+            if (isRent(inventory)) {
+                rows.add(new Object[] { ++rental, Date.valueOf(LocalDate.now()), null, inventory % books + 1, inventory });
+                rows = flushIfFull(insertRental, rows);
+            }
+        }
+        flush(insertRental, rows);
+
+        IdGeneratorRepository idGeneratorRepository = new IdGeneratorRepository(jdbcTemplate);
+        idGeneratorRepository.advancePast("book", books);
+        idGeneratorRepository.advancePast("patron", books);
+        idGeneratorRepository.advancePast("inventory", getInventoryCount());
+        idGeneratorRepository.advancePast("rental", rental);
+    }
+
+    public long getInventoryCount() {
+        return (long) books * copiesPerBook;
+    }
+
+    public long getBookId(long inventoryId) {
+        return (inventoryId - 1) / copiesPerBook + 1;
+    }
+
+    public boolean isRent(long inventoryId) {
+        return inventoryId % 2 == 1;
+    }
+
+    private List<Object[]> flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() < BATCH_SIZE) {
+            return rows;
+        }
+        flush(sql, rows);
+        return new ArrayList<>(BATCH_SIZE);
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.creditsuisse.task.benchmark;
+
+import com.creditsuisse.task.service.AvailabilityQueryService;
+import com.creditsuisse.task.service.InventoryValidator;
+import com.creditsuisse.task.service.RentalQueryService;
+import com.creditsuisse.task.service.RentalService;
+import com.creditsuisse.task.service.criteria.RentalCriteria;
+import com.creditsuisse.task.service.dto.InventoryDTO;
+import com.creditsuisse.task.service.dto.PatronDTO;
+import com.creditsuisse.task.service.dto.RentalDTO;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.jhipster.service.filter.LongFilter;
+
+/**
+ * Benchmarks of the availability, checkout and rental criteria paths against a seeded catalog.
+ * The catalog size is set with the {@code books}, {@code copiesPerBook} and {@code rentalsPerCopy} parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CirculationBenchmark {
+
+    @Param("1000")
+    public int books;
+
+    @Param("4")
+    public int copiesPerBook;
+
+    @Param("20")
+    public int rentalsPerCopy;
+
+    private ConfigurableApplicationContext context;
+
+    private CatalogSeeder seeder;
+
+    private AvailabilityQueryService availabilityQueryService;
+
+    private InventoryValidator inventoryValidator;
+
+    private RentalService rentalService;
+
+    private RentalQueryService rentalQueryService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        seeder = new CatalogSeeder(context.getBean(JdbcTemplate.class), books, copiesPerBook, rentalsPerCopy);
+        BenchmarkApplication.seed(context, seeder);
+        availabilityQueryService = context.getBean(AvailabilityQueryService.class);
+        inventoryValidator = context.getBean(InventoryValidator.class);
+        rentalService = context.getBean(RentalService.class);
+        rentalQueryService = context.getBean(RentalQueryService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long countAvailability() {
+        return availabilityQueryService.countAvailability(randomId(books));
+    }
+
+    @Benchmark
+    public void assertIsReturned() {
+        inventoryValidator.assertIsReturned(randomReturnedInventoryId(), null);
+    }
+
+    @Benchmark
+    public RentalDTO checkoutAndReturn() {
+        RentalDTO rental = new RentalDTO();
+        rental.setRentalDate(LocalDate.now());
+        rental.setPatron(new PatronDTO());
+        rental.getPatron().setId(randomId(books));
+        rental.setInventory(new InventoryDTO());
+        rental.getInventory().setId(randomReturnedInventoryId());
+        rental = rentalService.save(rental);
+
+        rental.setReturnDate(LocalDate.now());
+        return rentalService.save(rental);
+    }
+
+    @Benchmark
+    public Page<RentalDTO> findByCriteria() {
+        RentalCriteria criteria = new RentalCriteria();
+        LongFilter patronId = new LongFilter();
+        patronId.setEquals(randomId(books));
+        criteria.setPatronId(patronId);
+        return rentalQueryService.findByCriteria(criteria, PageRequest.of(0, 20));
+    }
+
+    private long randomId(long max) {
+        return ThreadLocalRandom.current().nextLong(max) + 1;
+    }
+
+    private long randomReturnedInventoryId() {
+        // even inventory items have no open rental, see CatalogSeeder
+        return 2 * randomId(seeder.getInventoryCount() / 2);
+    }
+}
@@ -0,0 +1,148 @@
+package com.creditsuisse.task.benchmark;
+
+import com.creditsuisse.task.service.AvailabilityQueryService;
+import com.creditsuisse.task.service.RentalService;
+import com.creditsuisse.task.service.dto.InventoryDTO;
+import com.creditsuisse.task.service.dto.PatronDTO;
+import com.creditsuisse.task.service.dto.RentalDTO;
+import com.creditsuisse.task.service.exception.ItemAlreadyRentException;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Compares the throughput of the availability and checkout paths run on platform threads and on virtual threads, as
+ * selected by {@code application.threads.mode}.
+ * <p>
+ * Every invocation submits {@value #CONCURRENT_REQUESTS} requests at once to the {@code taskExecutor}, and waits for all of
+ * them. In the platform mode its pool is sized to {@code platformThreads}, standing in for the bounded request worker pool;
+ * in the virtual mode every request gets its own virtual thread. The in-memory H2 database does not block on I/O, so each
+ * request first waits {@code latencyMillis} outside of its transaction, like a request waiting on a client or a remote call.
+ * <p>
+ * The virtual mode needs a Java 21 or later runtime, the application fails to start otherwise. Run both modes and keep
+ * the results with {@code -Djmh.args="-f 1 -rf csv -rff target/thread-mode.csv ThreadModeBenchmark"}, or only the platform
+ * one on an older runtime with {@code -p mode=platform}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ThreadModeBenchmark {
+
+    static final int CONCURRENT_REQUESTS = 256;
+
+    @Param({ "platform", "virtual" })
+    public String mode;
+
+    @Param("64")
+    public int platformThreads;
+
+    @Param({ "0", "5" })
+    public int latencyMillis;
+
+    @Param("1000")
+    public int books;
+
+    private ConfigurableApplicationContext context;
+
+    private CatalogSeeder seeder;
+
+    private Executor taskExecutor;
+
+    private AvailabilityQueryService availabilityQueryService;
+
+    private RentalService rentalService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context =
+            BenchmarkApplication.start(
+                "application.threads.mode=" + mode,
+                "spring.task.execution.pool.core-size=" + platformThreads,
+                "spring.task.execution.pool.max-size=" + platformThreads
+            );
+        seeder = new CatalogSeeder(context.getBean(JdbcTemplate.class), books, 4, 20);
+        BenchmarkApplication.seed(context, seeder);
+        taskExecutor = context.getBean("taskExecutor", Executor.class);
+        availabilityQueryService = context.getBean(AvailabilityQueryService.class);
+        rentalService = context.getBean(RentalService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public void countAvailability() throws InterruptedException {
+        runConcurrently(() -> availabilityQueryService.countAvailability(randomId(books)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public void checkoutAndReturn() throws InterruptedException {
+        runConcurrently(this::checkoutAndReturnRandomCopy);
+    }
+
+    private void runConcurrently(Runnable request) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            taskExecutor.execute(
+                () -> {
+                    try {
+                        waitForLatency();
+                        request.run();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            );
+        }
+        if (!done.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Requests still running after a minute in the " + mode + " thread mode");
+        }
+    }
+
+    private void waitForLatency() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void checkoutAndReturnRandomCopy() {
+        RentalDTO rental = new RentalDTO();
+        rental.setRentalDate(LocalDate.now());
+        rental.setPatron(new PatronDTO());
+        rental.getPatron().setId(randomId(books));
+        rental.setInventory(new InventoryDTO());
+        rental.getInventory().setId(randomReturnedInventoryId());
+        try {
+            rental = rentalService.save(rental);
+        } catch (ItemAlreadyRentException e) {
+            // another concurrent request rented the same copy first, which is an answered request too
+            return;
+        }
+        rental.setReturnDate(LocalDate.now());
+        rentalService.save(rental);
+    }
+
+    private long randomId(long max) {
+        return ThreadLocalRandom.current().nextLong(max) + 1;
+    }
+
+    private long randomReturnedInventoryId() {
+        // even inventory items have no open rental, see CatalogSeeder
+        return 2 * randomId(seeder.getInventoryCount() / 2);
+    }
+}
@@ -1,5 +1,7 @@
 package com.creditsuisse.task.config;
 
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +11,412 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Generator generator = new Generator();
+
+    private final Cache cache = new Cache();
+
+    private final Audit audit = new Audit();
+
+    private final RentalEvents rentalEvents = new RentalEvents();
+
+    private final Threads threads = new Threads();
+
+    private final CatalogImport catalogImport = new CatalogImport();
+
+    public Generator getGenerator() {
+        return generator;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public RentalEvents getRentalEvents() {
+        return rentalEvents;
+    }
+
+    public Threads getThreads() {
+        return threads;
+    }
+
+    public CatalogImport getCatalogImport() {
+        return catalogImport;
+    }
+
+    /**
+     * Streaming import of books by ISBN, from the REST upload or from a file when the
+     * {@link Constants#SPRING_PROFILE_IMPORT} profile is active.
+     */
+    public static class CatalogImport {
+
+        private String file;
+
+        private int batchSize = 1000;
+
+        private int writerThreads = 2;
+
+        private int queueCapacity = 8;
+
+        private int maxReportedRejects = 100;
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getMaxReportedRejects() {
+            return maxReportedRejects;
+        }
+
+        public void setMaxReportedRejects(int maxReportedRejects) {
+            this.maxReportedRejects = maxReportedRejects;
+        }
+    }
+
+    /**
+     * Threads running the request handling and the asynchronous tasks.
+     */
+    public static class Threads {
+
+        private Mode mode = Mode.PLATFORM;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public enum Mode {
+            /**
+             * Bounded pools of platform threads: the Undertow workers and the {@code spring.task.execution} pool.
+             */
+            PLATFORM,
+            /**
+             * A new virtual thread per request and per asynchronous task, requires a Java 21 or later runtime.
+             */
+            VIRTUAL,
+        }
+    }
+
+    /**
+     * Rental event log, fed from the rental event outbox by the relay.
+     */
+    public static class RentalEvents {
+
+        private String logPath = "target/rental-events";
+
+        private int segmentSizeBytes = 64 * 1024 * 1024;
+
+        private int retainedSegments = 16;
+
+        private boolean relayEnabled = true;
+
+        private int relayBatchSize = 500;
+
+        private long relayDelayMillis = 1000;
+
+        public String getLogPath() {
+            return logPath;
+        }
+
+        public void setLogPath(String logPath) {
+            this.logPath = logPath;
+        }
+
+        public int getSegmentSizeBytes() {
+            return segmentSizeBytes;
+        }
+
+        public void setSegmentSizeBytes(int segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+        }
+
+        public int getRetainedSegments() {
+            return retainedSegments;
+        }
+
+        public void setRetainedSegments(int retainedSegments) {
+            this.retainedSegments = retainedSegments;
+        }
+
+        public boolean isRelayEnabled() {
+            return relayEnabled;
+        }
+
+        public void setRelayEnabled(boolean relayEnabled) {
+            this.relayEnabled = relayEnabled;
+        }
+
+        public int getRelayBatchSize() {
+            return relayBatchSize;
+        }
+
+        public void setRelayBatchSize(int relayBatchSize) {
+            this.relayBatchSize = relayBatchSize;
+        }
+
+        public long getRelayDelayMillis() {
+            return relayDelayMillis;
+        }
+
+        public void setRelayDelayMillis(long relayDelayMillis) {
+            this.relayDelayMillis = relayDelayMillis;
+        }
+    }
+
+    /**
+     * Queue and batches of the entity audit events written in the background.
+     */
+    public static class Audit {
+
+        private int queueCapacity = 10_000;
+
+        private int batchSize = 500;
+
+        private long offerTimeoutMillis = 100;
+
+        private int writeAttempts = 3;
+
+        private long retryBackoffMillis = 100;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getOfferTimeoutMillis() {
+            return offerTimeoutMillis;
+        }
+
+        public void setOfferTimeoutMillis(long offerTimeoutMillis) {
+            this.offerTimeoutMillis = offerTimeoutMillis;
+        }
+
+        public int getWriteAttempts() {
+            return writeAttempts;
+        }
+
+        public void setWriteAttempts(int writeAttempts) {
+            this.writeAttempts = writeAttempts;
+        }
+
+        public long getRetryBackoffMillis() {
+            return retryBackoffMillis;
+        }
+
+        public void setRetryBackoffMillis(long retryBackoffMillis) {
+            this.retryBackoffMillis = retryBackoffMillis;
+        }
+    }
+
+    /**
+     * Per region settings of the caches created by {@link CacheConfiguration}, keyed by region name.
+     * Settings left unset fall back to the {@code jhipster.cache.ehcache} ones.
+     * <p>
+     * Besides the heap tier, sized in entries, a region can have an off-heap tier and a disk tier, both sized in megabytes.
+     * Each tier must be larger than the one above it, and disk tiers require a {@code diskPath}.
+     */
+    public static class Cache {
+
+        private String diskPath;
+
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            private Long maxEntries;
+
+            private Long timeToLiveSeconds;
+
+            private Long offHeapMegabytes;
+
+            private Long diskMegabytes;
+
+            private boolean diskPersistent;
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getOffHeapMegabytes() {
+                return offHeapMegabytes;
+            }
+
+            public void setOffHeapMegabytes(Long offHeapMegabytes) {
+                this.offHeapMegabytes = offHeapMegabytes;
+            }
+
+            public Long getDiskMegabytes() {
+                return diskMegabytes;
+            }
+
+            public void setDiskMegabytes(Long diskMegabytes) {
+                this.diskMegabytes = diskMegabytes;
+            }
+
+            public boolean isDiskPersistent() {
+                return diskPersistent;
+            }
+
+            public void setDiskPersistent(boolean diskPersistent) {
+                this.diskPersistent = diskPersistent;
+            }
+        }
+    }
+
+    /**
+     * Synthetic catalog generated on startup when the {@link Constants#SPRING_PROFILE_GENERATOR} profile is active.
+     */
+    public static class Generator {
+
+        private int books = 1_000_000;
+
+        private int patrons = 200_000;
+
+        private int maxCopiesPerBook = 20;
+
+        private int maxRentalsPerCopy = 100;
+
+        private double popularitySkew = 1.0;
+
+        private double rentRatio = 0.1;
+
+        private int batchSize = 5_000;
+
+        private long seed = 42;
+
+        public int getBooks() {
+            return books;
+        }
+
+        public void setBooks(int books) {
+            this.books = books;
+        }
+
+        public int getPatrons() {
+            return patrons;
+        }
+
+        public void setPatrons(int patrons) {
+            this.patrons = patrons;
+        }
+
+        public int getMaxCopiesPerBook() {
+            return maxCopiesPerBook;
+        }
+
+        public void setMaxCopiesPerBook(int maxCopiesPerBook) {
+            this.maxCopiesPerBook = maxCopiesPerBook;
+        }
+
+        public int getMaxRentalsPerCopy() {
+            return maxRentalsPerCopy;
+        }
+
+        public void setMaxRentalsPerCopy(int maxRentalsPerCopy) {
+            this.maxRentalsPerCopy = maxRentalsPerCopy;
+        }
+
+        public double getPopularitySkew() {
+            return popularitySkew;
+        }
+
+        public void setPopularitySkew(double popularitySkew) {
+            this.popularitySkew = popularitySkew;
+        }
+
+        public double getRentRatio() {
+            return rentRatio;
+        }
+
+        public void setRentRatio(double rentRatio) {
+            this.rentRatio = rentRatio;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+    }
+}
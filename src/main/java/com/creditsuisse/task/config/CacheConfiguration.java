@@ -1,10 +1,26 @@
 package com.creditsuisse.task.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.time.Duration;
+import java.util.Map;
+import javax.cache.Caching;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
@@ -19,18 +35,85 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final Map<String, ApplicationProperties.Cache.Region> regions;
+    private final String diskPath;
     private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.regions = applicationProperties.getCache().getRegions();
+        this.diskPath = applicationProperties.getCache().getDiskPath();
+        this.jcacheConfiguration = jcacheConfiguration(ResourcePoolsBuilder.heap(ehcache.getMaxEntries()), ehcache.getTimeToLiveSeconds());
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
+    /**
+     * Replaces the default JCache manager, so that it gets a persistence directory when disk tiers are enabled.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> cacheManagerCustomizers) {
+        EhcacheCachingProvider cachingProvider = (EhcacheCachingProvider) Caching.getCachingProvider(
+            EhcacheCachingProvider.class.getName()
+        );
+        javax.cache.CacheManager cacheManager;
+        if (diskPath == null) {
+            cacheManager = cachingProvider.getCacheManager();
+        } else {
+            DefaultConfiguration configuration = new DefaultConfiguration(
+                cachingProvider.getDefaultClassLoader(),
+                new DefaultPersistenceConfiguration(new File(diskPath))
             );
+            cacheManager = cachingProvider.getCacheManager(cachingProvider.getDefaultURI(), configuration);
+        }
+        cacheManagerCustomizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
+    }
+
+    /**
+     * Exports the mean get time of every cache; hits, misses, puts, removals and evictions are already bound by Spring Boot.
+     * Both read the JCache statistics enabled by {@link #createCache}.
+     */
+    @Bean
+    public MeterBinder cacheGetTimeMetrics(javax.cache.CacheManager cacheManager) {
+        return registry -> {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            for (String cacheName : cacheManager.getCacheNames()) {
+                ObjectName objectName = statisticsObjectName(cacheManager, cacheName);
+                Gauge
+                    .builder("cache.gets.mean", mBeanServer, server -> averageGetTime(server, objectName))
+                    .tags("cache", cacheName, "cacheManager", "cacheManager")
+                    .description("The mean time of cache gets")
+                    .baseUnit("microseconds")
+                    .register(registry);
+            }
+        };
+    }
+
+    private static ObjectName statisticsObjectName(javax.cache.CacheManager cacheManager, String cacheName) {
+        try {
+            // same escaping as the JCache statistics MBeans registered by Ehcache
+            return new ObjectName(
+                "javax.cache:type=CacheStatistics,CacheManager=" +
+                cacheManager.getURI().toString().replaceAll("[,:=\n]", ".") +
+                ",Cache=" +
+                cacheName.replaceAll("[,:=\n]", ".")
+            );
+        } catch (JMException e) {
+            throw new IllegalStateException("Invalid statistics MBean name for the " + cacheName + " cache", e);
+        }
+    }
+
+    private static double averageGetTime(MBeanServer mBeanServer, ObjectName objectName) {
+        try {
+            return ((Number) mBeanServer.getAttribute(objectName, "AverageGetTime")).doubleValue();
+        } catch (JMException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
     }
 
     @Bean
@@ -38,17 +121,64 @@ public class CacheConfiguration {
         return cm -> {
             createCache(cm, com.creditsuisse.task.repository.UserRepository.USERS_BY_LOGIN_CACHE);
             createCache(cm, com.creditsuisse.task.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, com.creditsuisse.task.repository.BookAvailabilityRepository.AVAILABILITY_BY_BOOK_CACHE);
+            createCache(cm, com.creditsuisse.task.domain.Book.class.getName(), "book");
+            createCache(cm, com.creditsuisse.task.domain.Patron.class.getName(), "patron");
+            createCache(cm, com.creditsuisse.task.domain.Inventory.class.getName(), "inventory");
             // jhipster-needle-ehcache-add-entry
         };
     }
 
     private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        createCache(cm, cacheName, cacheName);
+    }
+
+    /**
+     * Creates the cache with the settings of the given {@code application.cache.regions} entry, if any, and enables its statistics.
+     */
+    private void createCache(javax.cache.CacheManager cm, String cacheName, String regionName) {
         javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, regionConfiguration(regionName));
         }
+        cm.enableStatistics(cacheName, true);
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> regionConfiguration(String regionName) {
+        ApplicationProperties.Cache.Region region = regions.get(regionName);
+        if (region == null) {
+            return jcacheConfiguration;
+        }
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(
+            region.getMaxEntries() != null ? region.getMaxEntries() : ehcache.getMaxEntries()
+        );
+        if (region.getOffHeapMegabytes() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapMegabytes(), MemoryUnit.MB);
+        }
+        if (region.getDiskMegabytes() != null) {
+            if (diskPath == null) {
+                throw new IllegalStateException("The disk tier of the " + regionName + " cache requires application.cache.disk-path");
+            }
+            resourcePools = resourcePools.disk(region.getDiskMegabytes(), MemoryUnit.MB, region.isDiskPersistent());
+        }
+        return jcacheConfiguration(
+            resourcePools,
+            region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds()
+        );
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(
+        ResourcePoolsBuilder resourcePools,
+        long timeToLiveSeconds
+    ) {
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
+                .build()
+        );
     }
 
     @Autowired(required = false)
@@ -11,5 +11,9 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    // Spring profile generating a large synthetic catalog on startup, see CatalogGenerator
+    public static final String SPRING_PROFILE_GENERATOR = "generator";
+    public static final String SPRING_PROFILE_IMPORT = "import";
+
     private Constants() {}
 }
@@ -1,5 +1,6 @@
 package com.creditsuisse.task.config;
 
+import com.creditsuisse.task.repository.ExtendedJpaRepository;
 import java.sql.SQLException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,7 +15,7 @@ import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
 @Configuration
-@EnableJpaRepositories("com.creditsuisse.task.repository")
+@EnableJpaRepositories(basePackages = "com.creditsuisse.task.repository", repositoryBaseClass = ExtendedJpaRepository.class)
 @EnableJpaAuditing(auditorAwareRef = "springSecurityAuditorAware")
 @EnableTransactionManagement
 public class DatabaseConfiguration {
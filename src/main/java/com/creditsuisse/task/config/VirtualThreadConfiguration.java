@@ -0,0 +1,51 @@
+package com.creditsuisse.task.config;
+
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the servlet request handling on virtual threads, when {@code application.threads.mode} is {@code virtual}.
+ * <p>
+ * Undertow parses requests on its I/O threads, then dispatches every servlet invocation to a new virtual thread
+ * instead of its bounded worker pool; the {@code taskExecutor} of {@link AsyncConfiguration} switches to virtual threads
+ * too. Requests blocked on JDBC then only hold a cheap virtual thread, and the concurrency is bounded by the Hikari
+ * pool instead: size {@code spring.datasource.hikari.maximum-pool-size} after what the database sustains, not after the
+ * expected number of concurrent requests, and keep {@code connection-timeout} short so that an overload fails fast.
+ * <p>
+ * A virtual thread blocking inside a {@code synchronized} block pins its carrier thread, which the MySQL driver does
+ * on most of its I/O. Run with {@code -Djdk.tracePinnedThreads=short} to log the pinning stack traces, or record the
+ * {@code jdk.VirtualThreadPinned} JFR event, before enabling the mode in production.
+ * <p>
+ * To compare both modes, run {@code ThreadModeBenchmark} of the {@code benchmark} profile, which runs the availability
+ * and checkout paths on the {@code taskExecutor} of each mode. End to end, run the application once per mode and replay
+ * the same workload with {@code com.creditsuisse.task.load.LoadDriver}, for example with
+ * {@code -Dload.browse-operations=AVAILABILITY -Dload.checkout-ratio=0.25 -Dload.concurrency=256 -Dload.label=virtual},
+ * then compare the rows of both labels in {@code target/load-results.csv}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.threads", name = "mode", havingValue = "virtual")
+public class VirtualThreadConfiguration {
+
+    private static final String REQUEST_THREAD_NAME_PREFIX = "request-";
+
+    private final Logger log = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    @Bean
+    public UndertowDeploymentInfoCustomizer virtualThreadDeploymentInfoCustomizer() {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(REQUEST_THREAD_NAME_PREFIX);
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Handling requests on virtual threads, run with -Djdk.tracePinnedThreads=short to trace pinned threads");
+        } else {
+            log.info("Handling requests on virtual threads");
+        }
+        return deploymentInfo -> {
+            deploymentInfo.setExecutor(executor);
+            deploymentInfo.setAsyncExecutor(executor);
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.creditsuisse.task.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of the Java 21 runtime, from code compiled for Java 11.
+ * <p>
+ * The API is looked up by reflection, so that the application still builds and runs on older runtimes as long as the
+ * {@link ApplicationProperties.Threads.Mode#VIRTUAL} mode is not selected.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    /**
+     * Creates an executor starting a new virtual thread for each task, named with the given prefix and a counter.
+     * <p>
+     * The executor holds no threads, so it does not need to be shut down.
+     *
+     * @throws IllegalStateException if the runtime does not support virtual threads.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require a Java 21 or later runtime, running on " + Runtime.version(), e);
+        }
+    }
+}
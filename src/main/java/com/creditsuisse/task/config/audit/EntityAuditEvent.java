@@ -0,0 +1,66 @@
+package com.creditsuisse.task.config.audit;
+
+import java.time.Instant;
+
+/**
+ * A change of an audited entity, waiting to be written to the {@code entity_audit_event} table.
+ */
+public class EntityAuditEvent {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE,
+    }
+
+    private final String entityType;
+
+    private final Long entityId;
+
+    private final Action action;
+
+    private final String modifiedBy;
+
+    private final Instant modifiedDate;
+
+    public EntityAuditEvent(String entityType, Long entityId, Action action, String modifiedBy, Instant modifiedDate) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.action = action;
+        this.modifiedBy = modifiedBy;
+        this.modifiedDate = modifiedDate;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getModifiedBy() {
+        return modifiedBy;
+    }
+
+    public Instant getModifiedDate() {
+        return modifiedDate;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "EntityAuditEvent{" +
+            "entityType='" + entityType + "'" +
+            ", entityId=" + entityId +
+            ", action=" + action +
+            ", modifiedBy='" + modifiedBy + "'" +
+            ", modifiedDate='" + modifiedDate + "'" +
+            "}"
+        );
+    }
+}
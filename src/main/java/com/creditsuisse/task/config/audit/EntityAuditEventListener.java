@@ -0,0 +1,105 @@
+package com.creditsuisse.task.config.audit;
+
+import com.creditsuisse.task.config.Constants;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.security.SecurityUtils;
+import java.time.Instant;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate listener turning the inserts, updates and deletes of the audited entities into {@link EntityAuditEvent}s.
+ * <p>
+ * Changes are captured when they are flushed, and handed to the {@link EntityAuditEventWriter} once their transaction
+ * commits, so rolled back changes are never audited and the audit adds no write to the business transaction.
+ * Bulk JPQL and native statements bypass Hibernate listeners and are not audited.
+ */
+@Component
+public class EntityAuditEventListener
+    implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> AUDITED_ENTITIES = Set.of(Rental.class, Inventory.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityAuditEventWriter entityAuditEventWriter;
+
+    public EntityAuditEventListener(EntityManagerFactory entityManagerFactory, EntityAuditEventWriter entityAuditEventWriter) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityAuditEventWriter = entityAuditEventWriter;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        write(event.getEntity(), event.getId(), EntityAuditEvent.Action.CREATE);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        write(event.getEntity(), event.getId(), EntityAuditEvent.Action.UPDATE);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        write(event.getEntity(), event.getId(), EntityAuditEvent.Action.DELETE);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was committed, so there is nothing to audit
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was committed, so there is nothing to audit
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was committed, so there is nothing to audit
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return AUDITED_ENTITIES.contains(persister.getMappedClass());
+    }
+
+    private void write(Object entity, Object id, EntityAuditEvent.Action action) {
+        if (!AUDITED_ENTITIES.contains(entity.getClass())) {
+            return;
+        }
+        entityAuditEventWriter.write(
+            new EntityAuditEvent(
+                entity.getClass().getSimpleName(),
+                (Long) id,
+                action,
+                SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM),
+                Instant.now()
+            )
+        );
+    }
+}
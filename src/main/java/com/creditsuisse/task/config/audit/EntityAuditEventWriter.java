@@ -0,0 +1,241 @@
+package com.creditsuisse.task.config.audit;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes {@link EntityAuditEvent}s to the {@code entity_audit_event} table in JDBC batches, from a single background thread.
+ * <p>
+ * Events wait in a bounded queue. When the queue is full, callers wait up to {@code application.audit.offer-timeout-millis}
+ * for room and then write their event themselves, which slows producers down instead of dropping events.
+ * The queue is flushed when the application shuts down.
+ * <p>
+ * Every batch is written in a new transaction: callers run in Hibernate post-commit callbacks, where the committed
+ * transaction is still bound to the thread, and joining it would leave the insert uncommitted.
+ * <p>
+ * A failed batch is retried with an exponential backoff. The background thread retries it until it succeeds, so that the
+ * queue fills up while the database is unavailable. Synchronous writes, for a full queue or on shutdown, give up after
+ * {@code application.audit.write-attempts}: their events are counted by the {@value #DROPPED_EVENTS_METRIC} counter and
+ * the write throws.
+ */
+@Component
+public class EntityAuditEventWriter {
+
+    private static final String INSERT_EVENT =
+        "insert into entity_audit_event (entity_type, entity_id, action, modified_by, modified_date) values (?, ?, ?, ?, ?)";
+
+    static final String DROPPED_EVENTS_METRIC = "audit.events.dropped";
+
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30_000;
+
+    private final Logger log = LoggerFactory.getLogger(EntityAuditEventWriter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<EntityAuditEvent> queue;
+
+    private final int batchSize;
+
+    private final long offerTimeoutMillis;
+
+    private final int writeAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final Counter droppedEvents;
+
+    /**
+     * The batch of the background thread, left to the shutdown flush if the thread stops before writing it.
+     */
+    private final List<EntityAuditEvent> batch = new ArrayList<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+        runnable -> {
+            Thread thread = new Thread(runnable, "entity-audit-writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    private volatile boolean running = true;
+
+    public EntityAuditEventWriter(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(applicationProperties.getAudit().getQueueCapacity());
+        this.batchSize = applicationProperties.getAudit().getBatchSize();
+        this.offerTimeoutMillis = applicationProperties.getAudit().getOfferTimeoutMillis();
+        this.writeAttempts = Math.max(1, applicationProperties.getAudit().getWriteAttempts());
+        this.retryBackoffMillis = applicationProperties.getAudit().getRetryBackoffMillis();
+        this.droppedEvents =
+            Counter
+                .builder(DROPPED_EVENTS_METRIC)
+                .description("The entity audit events which could not be written")
+                .baseUnit("events")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        executor.execute(this::writeQueuedEvents);
+    }
+
+    /**
+     * Queues the event, or writes it if the queue stays full.
+     *
+     * @throws IllegalStateException if the event had to be written, and could not be.
+     */
+    public void write(EntityAuditEvent event) {
+        try {
+            if (running && queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Audit event queue is full, writing {} synchronously", event);
+        writeOrDrop(Collections.singletonList(event));
+    }
+
+    /**
+     * Stops the background thread, then writes its pending batch and the events left in the queue.
+     *
+     * @throws IllegalStateException if some of the events could not be written.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            // backing off after a failed write
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        List<EntityAuditEvent> events = new ArrayList<>(batchSize);
+        if (executor.isTerminated()) {
+            events.addAll(batch);
+            batch.clear();
+        } else {
+            log.warn("Audit event writer did not stop in time, its batch of {} events is not flushed", batch.size());
+        }
+        int flushed = 0;
+        IllegalStateException failure = null;
+        do {
+            if (!events.isEmpty()) {
+                try {
+                    writeOrDrop(events);
+                    flushed += events.size();
+                } catch (IllegalStateException e) {
+                    failure = e;
+                }
+                events.clear();
+            }
+        } while (queue.drainTo(events, batchSize) > 0);
+        log.debug("Flushed {} audit events on shutdown", flushed);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeQueuedEvents() {
+        int failedAttempts = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    EntityAuditEvent event = queue.poll(1, TimeUnit.SECONDS);
+                    if (event == null) {
+                        continue;
+                    }
+                    batch.add(event);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                try {
+                    writeBatch(batch);
+                    batch.clear();
+                    failedAttempts = 0;
+                } catch (RuntimeException e) {
+                    failedAttempts++;
+                    log.warn("Could not write {} audit events, attempt {}: {}", batch.size(), failedAttempts, e.toString());
+                    Thread.sleep(backoffMillis(failedAttempts));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the events, retrying up to {@link #writeAttempts} times, and counts them as dropped if it never succeeds.
+     */
+    private void writeOrDrop(List<EntityAuditEvent> events) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                writeBatch(events);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= writeAttempts) {
+                    droppedEvents.increment(events.size());
+                    log.error("Dropped {} audit events after {} attempts: {}", events.size(), attempt, events, e);
+                    throw new IllegalStateException("Could not write " + events.size() + " audit events", e);
+                }
+                log.warn("Could not write {} audit events, attempt {}: {}", events.size(), attempt, e.toString());
+                try {
+                    Thread.sleep(backoffMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    // the remaining attempts do not wait
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private long backoffMillis(int failedAttempts) {
+        return Math.min(MAX_RETRY_BACKOFF_MILLIS, retryBackoffMillis << Math.min(failedAttempts - 1, 20));
+    }
+
+    private void writeBatch(List<EntityAuditEvent> events) {
+        transactionTemplate.executeWithoutResult(
+            status ->
+                jdbcTemplate.batchUpdate(
+                    INSERT_EVENT,
+                    events,
+                    events.size(),
+                    (ps, event) -> {
+                        ps.setString(1, event.getEntityType());
+                        ps.setLong(2, event.getEntityId());
+                        ps.setString(3, event.getAction().name());
+                        ps.setString(4, event.getModifiedBy());
+                        ps.setTimestamp(5, Timestamp.from(event.getModifiedDate()));
+                    }
+                )
+        );
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Audit trail of the domain entities.
+ */
+package com.creditsuisse.task.config.audit;
@@ -0,0 +1,99 @@
+package com.creditsuisse.task.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * Per book projection of the number of inventory copies and of the copies currently rent.
+ * It is maintained by the rental and inventory services and rebuilt from the source tables
+ * by {@link com.creditsuisse.task.service.BookAvailabilityService#rebuild()}.
+ */
+@Entity
+@Table(name = "book_availability")
+public class BookAvailability implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @NotNull
+    @Column(name = "total_copies", nullable = false)
+    private Long totalCopies;
+
+    @NotNull
+    @Column(name = "copies_out", nullable = false)
+    private Long copiesOut;
+
+    public Long getBookId() {
+        return this.bookId;
+    }
+
+    public BookAvailability bookId(Long bookId) {
+        this.bookId = bookId;
+        return this;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Long getTotalCopies() {
+        return this.totalCopies;
+    }
+
+    public BookAvailability totalCopies(Long totalCopies) {
+        this.totalCopies = totalCopies;
+        return this;
+    }
+
+    public void setTotalCopies(Long totalCopies) {
+        this.totalCopies = totalCopies;
+    }
+
+    public Long getCopiesOut() {
+        return this.copiesOut;
+    }
+
+    public BookAvailability copiesOut(Long copiesOut) {
+        this.copiesOut = copiesOut;
+        return this;
+    }
+
+    public void setCopiesOut(Long copiesOut) {
+        this.copiesOut = copiesOut;
+    }
+
+    public Long getAvailable() {
+        return this.totalCopies - this.copiesOut;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookAvailability)) {
+            return false;
+        }
+        return bookId != null && bookId.equals(((BookAvailability) o).bookId);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BookAvailability{" +
+            "bookId=" + getBookId() +
+            ", totalCopies=" + getTotalCopies() +
+            ", copiesOut=" + getCopiesOut() +
+            "}";
+    }
+}
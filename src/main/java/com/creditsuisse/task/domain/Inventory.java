@@ -3,21 +3,27 @@ package com.creditsuisse.task.domain;
 import java.io.Serializable;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Inventory.
  */
 @Entity
 @Table(name = "inventory")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Inventory implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "idGenerator")
     private Long id;
 
-    @ManyToOne(optional = false)
+    @Column(name = "barcode", unique = true)
+    private String barcode;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @NotNull
     private Book book;
 
@@ -35,6 +41,19 @@ public class Inventory implements Serializable {
         return this;
     }
 
+    public String getBarcode() {
+        return this.barcode;
+    }
+
+    public Inventory barcode(String barcode) {
+        this.barcode = barcode;
+        return this;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
     public Book getBook() {
         return this.book;
     }
@@ -72,6 +91,7 @@ public class Inventory implements Serializable {
     public String toString() {
         return "Inventory{" +
             "id=" + getId() +
+            ", barcode='" + getBarcode() + "'" +
             "}";
     }
 }
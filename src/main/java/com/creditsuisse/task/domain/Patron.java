@@ -4,18 +4,21 @@ import java.io.Serializable;
 import java.time.LocalDate;
 import javax.persistence.*;
 import javax.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A Patron.
  */
 @Entity
 @Table(name = "patron")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Patron implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "idGenerator")
     private Long id;
 
     @NotNull
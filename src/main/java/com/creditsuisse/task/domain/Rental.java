@@ -16,7 +16,7 @@ public class Rental implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "idGenerator")
     private Long id;
 
     @NotNull
@@ -26,11 +26,11 @@ public class Rental implements Serializable {
     @Column(name = "return_date")
     private LocalDate returnDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull
     private Patron patron;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @NotNull
     @JsonIgnoreProperties(value = { "book" }, allowSetters = true)
     private Inventory inventory;
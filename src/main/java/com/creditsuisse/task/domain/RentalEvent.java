@@ -0,0 +1,184 @@
+package com.creditsuisse.task.domain;
+
+import com.creditsuisse.task.domain.enumeration.RentalEventType;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import javax.persistence.*;
+import javax.validation.constraints.*;
+
+/**
+ * Outbox entry of a rental change, written in the transaction of the change and relayed to the rental event log
+ * by {@link com.creditsuisse.task.service.RentalEventRelay}.
+ */
+@Entity
+@Table(name = "rental_event")
+public class RentalEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private RentalEventType type;
+
+    @NotNull
+    @Column(name = "rental_id", nullable = false)
+    private Long rentalId;
+
+    @Column(name = "patron_id")
+    private Long patronId;
+
+    @Column(name = "inventory_id")
+    private Long inventoryId;
+
+    @Column(name = "rental_date")
+    private LocalDate rentalDate;
+
+    @Column(name = "return_date")
+    private LocalDate returnDate;
+
+    @NotNull
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public RentalEvent id(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public RentalEventType getType() {
+        return this.type;
+    }
+
+    public RentalEvent type(RentalEventType type) {
+        this.type = type;
+        return this;
+    }
+
+    public void setType(RentalEventType type) {
+        this.type = type;
+    }
+
+    public Long getRentalId() {
+        return this.rentalId;
+    }
+
+    public RentalEvent rentalId(Long rentalId) {
+        this.rentalId = rentalId;
+        return this;
+    }
+
+    public void setRentalId(Long rentalId) {
+        this.rentalId = rentalId;
+    }
+
+    public Long getPatronId() {
+        return this.patronId;
+    }
+
+    public RentalEvent patronId(Long patronId) {
+        this.patronId = patronId;
+        return this;
+    }
+
+    public void setPatronId(Long patronId) {
+        this.patronId = patronId;
+    }
+
+    public Long getInventoryId() {
+        return this.inventoryId;
+    }
+
+    public RentalEvent inventoryId(Long inventoryId) {
+        this.inventoryId = inventoryId;
+        return this;
+    }
+
+    public void setInventoryId(Long inventoryId) {
+        this.inventoryId = inventoryId;
+    }
+
+    public LocalDate getRentalDate() {
+        return this.rentalDate;
+    }
+
+    public RentalEvent rentalDate(LocalDate rentalDate) {
+        this.rentalDate = rentalDate;
+        return this;
+    }
+
+    public void setRentalDate(LocalDate rentalDate) {
+        this.rentalDate = rentalDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return this.returnDate;
+    }
+
+    public RentalEvent returnDate(LocalDate returnDate) {
+        this.returnDate = returnDate;
+        return this;
+    }
+
+    public void setReturnDate(LocalDate returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public RentalEvent createdDate(Instant createdDate) {
+        this.createdDate = createdDate;
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RentalEvent)) {
+            return false;
+        }
+        return id != null && id.equals(((RentalEvent) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RentalEvent{" +
+            "id=" + getId() +
+            ", type='" + getType() + "'" +
+            ", rentalId=" + getRentalId() +
+            ", patronId=" + getPatronId() +
+            ", inventoryId=" + getInventoryId() +
+            ", rentalDate='" + getRentalDate() + "'" +
+            ", returnDate='" + getReturnDate() + "'" +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
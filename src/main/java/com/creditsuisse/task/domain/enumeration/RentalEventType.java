@@ -0,0 +1,11 @@
+package com.creditsuisse.task.domain.enumeration;
+
+/**
+ * The RentalEventType enumeration.
+ */
+public enum RentalEventType {
+    CREATED,
+    UPDATED,
+    RETURNED,
+    DELETED,
+}
@@ -0,0 +1,4 @@
+/**
+ * JPA domain enumerations.
+ */
+package com.creditsuisse.task.domain.enumeration;
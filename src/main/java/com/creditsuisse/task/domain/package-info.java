@@ -1,4 +1,26 @@
 /**
  * JPA domain objects.
+ * <p>
+ * Entities share the {@code idGenerator}: ids are allocated from the {@code id_generator} table, one row per entity
+ * table, by blocks of 50 with the pooled-lo optimizer. Unlike identity columns, this lets Hibernate batch inserts.
+ * JDBC code inserting rows directly must reserve its ids through
+ * {@link com.creditsuisse.task.repository.IdGeneratorRepository}.
  */
+@GenericGenerator(
+    name = "idGenerator",
+    strategy = "org.hibernate.id.enhanced.TableGenerator",
+    parameters = {
+        @Parameter(name = TableGenerator.TABLE_PARAM, value = "id_generator"),
+        @Parameter(name = TableGenerator.SEGMENT_COLUMN_PARAM, value = "sequence_name"),
+        @Parameter(name = TableGenerator.VALUE_COLUMN_PARAM, value = "next_val"),
+        @Parameter(name = TableGenerator.CONFIG_PREFER_SEGMENT_PER_ENTITY, value = "true"),
+        @Parameter(name = TableGenerator.INITIAL_PARAM, value = "1"),
+        @Parameter(name = TableGenerator.INCREMENT_PARAM, value = "50"),
+        @Parameter(name = TableGenerator.OPT_PARAM, value = "pooled-lo"),
+    }
+)
 package com.creditsuisse.task.domain;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.TableGenerator;
@@ -0,0 +1,32 @@
+package com.creditsuisse.task.repository;
+
+import com.creditsuisse.task.domain.BookAvailability;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the BookAvailability projection.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface BookAvailabilityRepository extends JpaRepository<BookAvailability, Long> {
+    /**
+     * The cache of the availability by book id, filled and evicted by {@link com.creditsuisse.task.service.BookAvailabilityService}.
+     */
+    String AVAILABILITY_BY_BOOK_CACHE = "availabilityByBook";
+
+    @Modifying
+    @Query(
+        "update BookAvailability b set b.totalCopies = b.totalCopies + :totalDelta, b.copiesOut = b.copiesOut + :outDelta " +
+        "where b.bookId = :bookId"
+    )
+    int adjust(@Param("bookId") Long bookId, @Param("totalDelta") long totalDelta, @Param("outDelta") long outDelta);
+
+    List<BookAvailability> findAllByBookIdIn(Collection<Long> bookIds);
+
+    @Query("select coalesce(sum(b.totalCopies - b.copiesOut), 0) from BookAvailability b")
+    Long sumAvailable();
+}
@@ -9,4 +9,4 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {}
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, KeysetSpecificationExecutor<Book> {}
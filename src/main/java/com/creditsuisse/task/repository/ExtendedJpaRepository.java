@@ -0,0 +1,53 @@
+package com.creditsuisse.task.repository;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+
+/**
+ * Base class of the Spring Data repositories, implementing {@link KeysetSpecificationExecutor}
+ * and {@link StreamingSpecificationExecutor} for the repositories which declare them.
+ */
+public class ExtendedJpaRepository<T, ID extends Serializable>
+    extends SimpleJpaRepository<T, ID>
+    implements KeysetSpecificationExecutor<T>, StreamingSpecificationExecutor<T> {
+
+    private final EntityManager entityManager;
+
+    private final String idAttributeName;
+
+    public ExtendedJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityManager = entityManager;
+        this.idAttributeName = entityInformation.getIdAttribute() == null ? "id" : entityInformation.getIdAttribute().getName();
+    }
+
+    @Override
+    public List<T> findAllAfter(Specification<T> spec, Long after, int size) {
+        Specification<T> seek = (root, query, cb) -> after == null ? null : cb.greaterThan(root.<Long>get(idAttributeName), after);
+        return getQuery(Specification.where(spec).and(seek), Sort.by(idAttributeName)).setMaxResults(size).getResultList();
+    }
+
+    @Override
+    public Stream<T> streamAll(Specification<T> spec, Sort sort, int fetchSize) {
+        AtomicLong count = new AtomicLong();
+        return getQuery(spec, sort)
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .getResultStream()
+            .peek(
+                entity -> {
+                    if (count.incrementAndGet() % fetchSize == 0) {
+                        entityManager.clear();
+                    }
+                }
+            );
+    }
+}
@@ -0,0 +1,43 @@
+package com.creditsuisse.task.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC access to the {@code id_generator} table, for code inserting entity rows without Hibernate.
+ * <p>
+ * Hibernate allocates ids from the same rows, so ids assigned outside of it must be reserved here first.
+ */
+@Repository
+public class IdGeneratorRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids of the given entity table and returns the first one.
+     * <p>
+     * The reservation is committed in its own transaction, so that the row is not locked until the caller commits.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserve(String table, long count) {
+        if (jdbcTemplate.update("update id_generator set next_val = next_val + ? where sequence_name = ?", count, table) == 0) {
+            throw new IllegalStateException("No id generator row for the table " + table);
+        }
+        // the updated row stays locked until the commit, so this reads the value this transaction wrote
+        return jdbcTemplate.queryForObject("select next_val from id_generator where sequence_name = ?", Long.class, table) - count;
+    }
+
+    /**
+     * Moves the next id of the given entity table after {@code maxId}, for rows inserted with ids chosen by the caller.
+     */
+    @Transactional
+    public void advancePast(String table, long maxId) {
+        jdbcTemplate.update("update id_generator set next_val = greatest(next_val, ?) where sequence_name = ?", maxId + 1, table);
+    }
+}
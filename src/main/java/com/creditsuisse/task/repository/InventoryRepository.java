@@ -1,8 +1,14 @@
 package com.creditsuisse.task.repository;
 
 import com.creditsuisse.task.domain.Inventory;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -10,6 +16,48 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface InventoryRepository extends JpaRepository<Inventory, Long>, JpaSpecificationExecutor<Inventory> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, JpaSpecificationExecutor<Inventory>, KeysetSpecificationExecutor<Inventory> {
+    @Override
+    @EntityGraph(attributePaths = "book")
+    Optional<Inventory> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "book")
+    List<Inventory> findAll(Specification<Inventory> spec);
+
+    @Override
+    @EntityGraph(attributePaths = "book")
+    Page<Inventory> findAll(Specification<Inventory> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "book")
+    Page<Inventory> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "book")
+    List<Inventory> findAllAfter(Specification<Inventory> spec, Long after, int size);
+
     List<Inventory> findAllByBook_Id(Long bookId);
+
+    @Query("select i.book.id from Inventory i where i.id = :id")
+    Long findBookIdById(@Param("id") Long id);
+
+    /**
+     * Locks the inventory row until the end of the current transaction, without locking the referenced book.
+     */
+    @Query(value = "select id from inventory where id = :id for update", nativeQuery = true)
+    Long lockById(@Param("id") Long id);
+
+    /**
+     * Locks the inventory rows until the end of the current transaction.
+     *
+     * @return the ids of the locked rows, which are the ones that exist.
+     */
+    @Query(value = "select id from inventory where id in (:ids) order by id for update", nativeQuery = true)
+    List<Number> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.book.id from Inventory i where i.id in :ids")
+    List<Long> findBookIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    boolean existsByBarcodeIn(Collection<String> barcodes);
 }
@@ -0,0 +1,23 @@
+package com.creditsuisse.task.repository;
+
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset (seek) pagination over entities with a {@link Long} id.
+ * Unlike offset pagination it neither skips rows nor counts the matching entities.
+ *
+ * @param <T> the entity type.
+ */
+public interface KeysetSpecificationExecutor<T> {
+    /**
+     * Returns at most {@code size} entities matching the specification whose id is greater than {@code after},
+     * ordered by id.
+     *
+     * @param spec the specification to match, may be {@code null}.
+     * @param after the id of the last entity of the previous page, {@code null} for the first page.
+     * @param size the maximum number of entities to return.
+     * @return the matching entities.
+     */
+    List<T> findAllAfter(Specification<T> spec, Long after, int size);
+}
@@ -9,4 +9,4 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PatronRepository extends JpaRepository<Patron, Long>, JpaSpecificationExecutor<Patron> {}
+public interface PatronRepository extends JpaRepository<Patron, Long>, JpaSpecificationExecutor<Patron>, KeysetSpecificationExecutor<Patron> {}
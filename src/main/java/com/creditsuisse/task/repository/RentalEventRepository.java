@@ -0,0 +1,21 @@
+package com.creditsuisse.task.repository;
+
+import com.creditsuisse.task.domain.RentalEvent;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the RentalEvent outbox.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface RentalEventRepository extends JpaRepository<RentalEvent, Long> {
+    List<RentalEvent> findAllByOrderByIdAsc(Pageable pageable);
+
+    @Modifying
+    @Query("delete from RentalEvent e where e.id in :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
+}
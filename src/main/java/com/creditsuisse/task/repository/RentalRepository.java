@@ -1,9 +1,15 @@
 package com.creditsuisse.task.repository;
 
 import com.creditsuisse.task.domain.Rental;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,11 +17,49 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface RentalRepository extends JpaRepository<Rental, Long>, JpaSpecificationExecutor<Rental> {
+public interface RentalRepository
+    extends
+        JpaRepository<Rental, Long>,
+        JpaSpecificationExecutor<Rental>,
+        KeysetSpecificationExecutor<Rental>,
+        StreamingSpecificationExecutor<Rental> {
+    @Override
+    @EntityGraph(attributePaths = { "patron", "inventory", "inventory.book" })
+    Optional<Rental> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = { "patron", "inventory", "inventory.book" })
+    List<Rental> findAll(Specification<Rental> spec);
+
+    @Override
+    @EntityGraph(attributePaths = { "patron", "inventory", "inventory.book" })
+    Page<Rental> findAll(Specification<Rental> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = { "patron", "inventory", "inventory.book" })
+    Page<Rental> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = { "patron", "inventory", "inventory.book" })
+    List<Rental> findAllAfter(Specification<Rental> spec, Long after, int size);
+
     List<Rental> findAllByInventory_Id(Long inventoryId);
     Long countAllByReturnDateIsNullAndInventory_IdIn(Set<Long> inventoryIds);
     Long countAllByReturnDateIsNull();
+
+    @EntityGraph(attributePaths = { "inventory", "inventory.book" })
     List<Rental> findAllByReturnDateIsNullAndInventory_IdIn(Set<Long> inventoryIds);
+
     List<Rental> findAllByInventory_IdIn(Set<Long> inventoryIds);
     Long countAllByPatron_Id(Long patronId);
+    boolean existsByInventory_IdAndReturnDateIsNull(Long inventoryId);
+
+    @Query("select r.id from Rental r where r.inventory.id = :inventoryId and r.returnDate is null")
+    List<Long> findRentIdsByInventoryId(@Param("inventoryId") Long inventoryId);
+
+    @Query("select r.inventory.id from Rental r where r.inventory.id in :inventoryIds and r.returnDate is null")
+    List<Long> findRentInventoryIdsByInventoryIdIn(@Param("inventoryIds") Collection<Long> inventoryIds);
+
+    @Query("select r.inventory.book.id from Rental r where r.id = :id and r.returnDate is null")
+    Long findRentBookIdById(@Param("id") Long id);
 }
@@ -0,0 +1,24 @@
+package com.creditsuisse.task.repository;
+
+import java.util.stream.Stream;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Streams the entities matching a specification from a database cursor instead of materializing them in a list.
+ *
+ * @param <T> the entity type.
+ */
+public interface StreamingSpecificationExecutor<T> {
+    /**
+     * Streams the entities matching the specification, read-only and fetched {@code fetchSize} rows at a time.
+     * The persistence context is cleared every {@code fetchSize} entities, so memory stays constant whatever the number of rows.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     *
+     * @param spec the specification to match, may be {@code null}.
+     * @param sort the order of the entities.
+     * @param fetchSize the number of rows fetched per round trip.
+     * @return the matching entities.
+     */
+    Stream<T> streamAll(Specification<T> spec, Sort sort, int fetchSize);
+}
@@ -3,9 +3,18 @@ package com.creditsuisse.task.security.jwt;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,13 +27,25 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
 
+/**
+ * Creates and verifies JWT tokens.
+ * <p>
+ * Verified tokens are cached, keyed by their SHA-256 hash, until they expire or for at most {@link #VERIFIED_TOKEN_MAX_TTL},
+ * so that repeated requests with the same token skip the signature verification and the parsing of its claims.
+ * The cache holds at most {@link #VERIFIED_TOKENS_MAX_SIZE} tokens; when it is full, expired tokens are dropped first,
+ * then an arbitrary tenth of the tokens.
+ */
 @Component
-public class TokenProvider {
+public class TokenProvider implements MeterBinder {
 
     private final Logger log = LoggerFactory.getLogger(TokenProvider.class);
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final int VERIFIED_TOKENS_MAX_SIZE = 10_000;
+
+    private static final long VERIFIED_TOKEN_MAX_TTL = TimeUnit.MINUTES.toMillis(10);
+
     private final Key key;
 
     private final JwtParser jwtParser;
@@ -33,6 +54,14 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private final LongAdder verifiedTokenHits = new LongAdder();
+
+    private final LongAdder verifiedTokenMisses = new LongAdder();
+
+    private final LongAdder verificationNanos = new LongAdder();
+
     public TokenProvider(JHipsterProperties jHipsterProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getSecret();
@@ -74,6 +103,16 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
+        String tokenHash = hash(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken verifiedToken = verifiedTokens.get(tokenHash);
+        if (verifiedToken != null && verifiedToken.expiresAt > now) {
+            verifiedTokenHits.increment();
+            return verifiedToken.toAuthentication(token);
+        }
+        verifiedTokenMisses.increment();
+
+        long start = System.nanoTime();
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
         Collection<? extends GrantedAuthority> authorities = Arrays
@@ -83,18 +122,104 @@ public class TokenProvider {
             .collect(Collectors.toList());
 
         User principal = new User(claims.getSubject(), "", authorities);
+        verificationNanos.add(System.nanoTime() - start);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        long expiresAt = now + VERIFIED_TOKEN_MAX_TTL;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        verifiedToken = new VerifiedToken(principal, expiresAt);
+        cacheVerifiedToken(tokenHash, verifiedToken, now);
+        return verifiedToken.toAuthentication(token);
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Verifies the token and returns its authentication, or an empty {@link Optional} when the token is invalid.
+     */
+    public Optional<Authentication> authenticate(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-            return true;
+            return Optional.of(getAuthentication(authToken));
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
             log.trace("Invalid JWT token trace.", e);
         }
-        return false;
+        return Optional.empty();
+    }
+
+    public boolean validateToken(String authToken) {
+        return authenticate(authToken).isPresent();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter
+            .builder("security.jwt.verifications", verifiedTokenHits, LongAdder::doubleValue)
+            .tag("result", "hit")
+            .description("Tokens authenticated from the verified token cache")
+            .register(registry);
+        FunctionCounter
+            .builder("security.jwt.verifications", verifiedTokenMisses, LongAdder::doubleValue)
+            .tag("result", "miss")
+            .description("Tokens which signature had to be verified")
+            .register(registry);
+        FunctionCounter
+            .builder("security.jwt.verifications.saved", this, TokenProvider::savedVerificationSeconds)
+            .baseUnit("seconds")
+            .description("Estimated verification time saved by the verified token cache")
+            .register(registry);
+        Gauge
+            .builder("security.jwt.verified.tokens", verifiedTokens, Map::size)
+            .description("Tokens in the verified token cache")
+            .register(registry);
+    }
+
+    private double savedVerificationSeconds() {
+        long misses = verifiedTokenMisses.sum();
+        if (misses == 0) {
+            return 0;
+        }
+        return verifiedTokenHits.sum() * (verificationNanos.sum() / (double) misses) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void cacheVerifiedToken(String tokenHash, VerifiedToken verifiedToken, long now) {
+        if (verifiedTokens.size() >= VERIFIED_TOKENS_MAX_SIZE) {
+            verifiedTokens.values().removeIf(token -> token.expiresAt <= now);
+        }
+        if (verifiedTokens.size() >= VERIFIED_TOKENS_MAX_SIZE) {
+            Iterator<String> tokenHashes = verifiedTokens.keySet().iterator();
+            for (int i = 0; i < VERIFIED_TOKENS_MAX_SIZE / 10 && tokenHashes.hasNext(); i++) {
+                tokenHashes.next();
+                tokenHashes.remove();
+            }
+        }
+        verifiedTokens.put(tokenHash, verifiedToken);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Principal of a verified token; the token itself is not kept.
+     */
+    private static final class VerifiedToken {
+
+        private final User principal;
+
+        private final long expiresAt;
+
+        private VerifiedToken(User principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+
+        private Authentication toAuthentication(String token) {
+            return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+        }
     }
 }
@@ -1,12 +1,9 @@
 package com.creditsuisse.task.service;
 
-import com.creditsuisse.task.domain.Inventory;
-import com.creditsuisse.task.domain.Rental;
-import com.creditsuisse.task.repository.InventoryRepository;
-import com.creditsuisse.task.repository.RentalRepository;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import com.creditsuisse.task.repository.BookAvailabilityRepository;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,31 +11,31 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class AvailabilityQueryService {
 
-    private final RentalRepository rentalRepository;
-    private final InventoryRepository inventoryRepository;
+    private final BookAvailabilityRepository bookAvailabilityRepository;
 
-    public AvailabilityQueryService(RentalRepository rentalRepository, InventoryRepository inventoryRepository) {
-        this.rentalRepository = rentalRepository;
-        this.inventoryRepository = inventoryRepository;
+    private final BookAvailabilityService bookAvailabilityService;
+
+    public AvailabilityQueryService(
+        BookAvailabilityRepository bookAvailabilityRepository,
+        BookAvailabilityService bookAvailabilityService
+    ) {
+        this.bookAvailabilityRepository = bookAvailabilityRepository;
+        this.bookAvailabilityService = bookAvailabilityService;
     }
 
     public Long countAvailability(Long bookId) {
-        final List<Inventory> inventoryItems = getInventoryItems(bookId);
-        if (inventoryItems.isEmpty()) {
-            return 0L;
-        }
-        final Set<Long> inventoryIds = inventoryItems.stream().map(Inventory::getId).collect(Collectors.toSet());
-
-        final List<Rental> currentlyRentList = rentalRepository.findAllByReturnDateIsNullAndInventory_IdIn(inventoryIds);
-        if (currentlyRentList.isEmpty()) {
-            return Integer.toUnsignedLong(inventoryIds.size());
+        if (bookId == null) {
+            return bookAvailabilityRepository.sumAvailable();
         }
-        final Set<Long> rentInventory = currentlyRentList.stream().map(rental -> rental.getInventory().getId()).collect(Collectors.toSet());
-
-        return inventoryIds.stream().filter(inventoryId -> !rentInventory.contains(inventoryId)).count();
+        return bookAvailabilityService.findOneByBookId(bookId).getAvailable();
     }
 
-    private List<Inventory> getInventoryItems(Long bookId) {
-        return bookId == null ? inventoryRepository.findAll() : inventoryRepository.findAllByBook_Id(bookId);
+    public Map<Long, Long> countAvailability(Collection<Long> bookIds) {
+        final Map<Long, Long> availability = new LinkedHashMap<>();
+        bookIds.forEach(bookId -> availability.put(bookId, 0L));
+        bookAvailabilityRepository
+            .findAllByBookIdIn(bookIds)
+            .forEach(bookAvailability -> availability.put(bookAvailability.getBookId(), bookAvailability.getAvailable()));
+        return availability;
     }
 }
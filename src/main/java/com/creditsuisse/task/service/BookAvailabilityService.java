@@ -0,0 +1,215 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.domain.BookAvailability;
+import com.creditsuisse.task.repository.BookAvailabilityRepository;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service maintaining the {@link BookAvailability} projection.
+ * <p>
+ * Adjustments must run in the transaction of the rental or inventory write they reflect.
+ * The cached availability of the affected book is evicted once that transaction commits. Books are spread over
+ * {@value #GENERATION_STRIPES} stripes, whose generation is bumped with every such eviction: a lookup only caches what it
+ * read if the generation of its stripe did not change meanwhile, so that a lookup which read the projection before a
+ * commit never puts its stale result back after the eviction.
+ * <p>
+ * The projection rows are inserted and rebuilt with plain JDBC: Hibernate would otherwise evict the whole second level
+ * cache after a native statement, not knowing the tables it changes.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class BookAvailabilityService {
+
+    static final int GENERATION_STRIPES = 1024;
+
+    private static final String INSERT_AVAILABILITY = "insert into book_availability (book_id, total_copies, copies_out) values (?, ?, ?)";
+
+    private static final String DELETE_PROJECTION = "delete from book_availability";
+
+    private static final String INSERT_PROJECTION_FROM_SOURCE =
+        "insert into book_availability (book_id, total_copies, copies_out) " +
+        "select i.book_id, count(i.id), count(r.id) from inventory i " +
+        "left join rental r on r.inventory_id = i.id and r.return_date is null " +
+        "group by i.book_id";
+
+    private final Logger log = LoggerFactory.getLogger(BookAvailabilityService.class);
+
+    private final BookAvailabilityRepository bookAvailabilityRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CacheManager cacheManager;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * Held to compare the generation of a stripe then cache a lookup, and to bump it then evict.
+     */
+    private final Object[] stripeLocks = new Object[GENERATION_STRIPES];
+
+    public BookAvailabilityService(
+        BookAvailabilityRepository bookAvailabilityRepository,
+        JdbcTemplate jdbcTemplate,
+        CacheManager cacheManager
+    ) {
+        this.bookAvailabilityRepository = bookAvailabilityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            stripeLocks[stripe] = new Object();
+        }
+    }
+
+    /**
+     * Returns the availability of the book, from the cache if it holds it, or else from the projection.
+     * <p>
+     * This must be the first read of the calling transaction: at the repeatable read isolation, its snapshot could
+     * otherwise predate the generation it checks.
+     *
+     * @param bookId the id of the book.
+     * @return the availability of the book, with no copies if the projection has no row for it.
+     */
+    @Transactional(readOnly = true)
+    public BookAvailability findOneByBookId(Long bookId) {
+        Cache cache = getAvailabilityByBookCache();
+        BookAvailability cached = cache.get(bookId, BookAvailability.class);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = getGeneration(bookId);
+        BookAvailability availability = bookAvailabilityRepository
+            .findById(bookId)
+            .orElseGet(() -> new BookAvailability().bookId(bookId).totalCopies(0L).copiesOut(0L));
+        cacheIfCurrent(availability, generation);
+        return availability;
+    }
+
+    public void copyAdded(Long bookId, boolean rent) {
+        adjust(bookId, 1, rent ? 1 : 0);
+    }
+
+    public void copiesAdded(Long bookId, long count) {
+        adjust(bookId, count, 0);
+    }
+
+    public void copyRemoved(Long bookId, boolean rent) {
+        adjust(bookId, -1, rent ? -1 : 0);
+    }
+
+    public void copyRent(Long bookId) {
+        copiesRent(bookId, 1);
+    }
+
+    public void copyReturned(Long bookId) {
+        copiesReturned(bookId, 1);
+    }
+
+    public void copiesRent(Long bookId, long count) {
+        adjust(bookId, 0, count);
+    }
+
+    public void copiesReturned(Long bookId, long count) {
+        adjust(bookId, 0, -count);
+    }
+
+    private void adjust(Long bookId, long totalDelta, long outDelta) {
+        if (bookId == null || (totalDelta == 0 && outDelta == 0)) {
+            return;
+        }
+        if (bookAvailabilityRepository.adjust(bookId, totalDelta, outDelta) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_AVAILABILITY, bookId, totalDelta, outDelta);
+            } catch (DuplicateKeyException e) {
+                // a concurrent transaction inserted the row of the book first, and has committed once the insert failed
+                log.debug("Book availability of book {} inserted concurrently, adjusting it", bookId);
+                bookAvailabilityRepository.adjust(bookId, totalDelta, outDelta);
+            }
+        }
+        afterCommit(() -> invalidate(stripe(bookId), cache -> cache.evict(bookId)));
+    }
+
+    /**
+     * Recomputes the whole projection from the inventory and rental tables, repairing any drift.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:00 (am).
+     */
+    @Scheduled(cron = "0 0 3 * * ?")
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update(DELETE_PROJECTION);
+        int rows = jdbcTemplate.update(INSERT_PROJECTION_FROM_SOURCE);
+        log.debug("Rebuilt book availability projection for {} books", rows);
+        afterCommit(
+            () -> {
+                // a lookup caching after the bump of its stripe fails the check, one caching before it is cleared
+                for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                    invalidate(stripe, cache -> {});
+                }
+                getAvailabilityByBookCache().clear();
+            }
+        );
+    }
+
+    /**
+     * Returns the generation of the stripe of the book, to be read before the projection.
+     */
+    long getGeneration(Long bookId) {
+        return generations.get(stripe(bookId));
+    }
+
+    /**
+     * Caches the availability read from the projection, unless a write of its stripe committed since {@code generation}.
+     *
+     * @return whether the availability was cached.
+     */
+    boolean cacheIfCurrent(BookAvailability availability, long generation) {
+        int stripe = stripe(availability.getBookId());
+        synchronized (stripeLocks[stripe]) {
+            if (generations.get(stripe) != generation) {
+                return false;
+            }
+            getAvailabilityByBookCache().putIfAbsent(availability.getBookId(), availability);
+            return true;
+        }
+    }
+
+    private void invalidate(int stripe, Consumer<Cache> eviction) {
+        synchronized (stripeLocks[stripe]) {
+            generations.incrementAndGet(stripe);
+            eviction.accept(getAvailabilityByBookCache());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+
+    private static int stripe(Long bookId) {
+        return Math.floorMod(Long.hashCode(bookId), GENERATION_STRIPES);
+    }
+
+    private Cache getAvailabilityByBookCache() {
+        return Objects.requireNonNull(cacheManager.getCache(BookAvailabilityRepository.AVAILABILITY_BY_BOOK_CACHE));
+    }
+}
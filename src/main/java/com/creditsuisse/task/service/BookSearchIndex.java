@@ -0,0 +1,381 @@
+package com.creditsuisse.task.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory inverted index of the book titles, for ranked full-text search.
+ * <p>
+ * Titles are split into terms, lower-cased and stripped of accents. Each term maps to the sorted ids of the books
+ * having it, and the terms are kept sorted so that a query term also matches the terms it is a prefix of.
+ * A book matches a query when each query term matches one of its terms. Matches are ranked by the sum, over the query
+ * terms, of the inverse document frequency of the matched term, halved for prefix matches, so that rare and complete
+ * words rank first; ties are ordered by id.
+ * <p>
+ * A query term of at least {@value #MIN_PREFIX_LENGTH} characters also matches the first {@value #MAX_PREFIX_EXPANSIONS}
+ * terms, in alphabetical order, it is a prefix of. Books only having further terms are neither returned nor counted in
+ * the total, so a short prefix matching many words gives an incomplete result, to be refined with a longer one.
+ * <p>
+ * The index is built on startup and rebuilt every night, and kept current by the book writes of this instance once
+ * they are committed. Writes of other instances are only picked up by the nightly rebuild.
+ */
+@Service
+public class BookSearchIndex {
+
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TreeMap<String, Postings> terms = new TreeMap<>();
+
+    /**
+     * Indexed title by book id, to remove the terms of a book whatever the title its writer saw.
+     */
+    private Map<Long, String> titles = new HashMap<>();
+
+    /**
+     * Changes applied while a rebuild is running, replayed on the rebuilt index.
+     */
+    private List<Change> pendingChanges;
+
+    public BookSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Splits a text into normalized terms.
+     */
+    static List<String> terms(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : TERM_SEPARATOR.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Rebuilds the whole index from the book table.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:30 (am).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TreeMap<String, Postings> rebuiltTerms = new TreeMap<>();
+        Map<Long, String> rebuiltTitles = new HashMap<>();
+        boolean rebuilt = false;
+        try {
+            // rows come by increasing id, so that every posting is appended
+            jdbcTemplate.query(
+                "select id, title from book order by id",
+                rs -> {
+                    long id = rs.getLong("id");
+                    String title = rs.getString("title");
+                    index(rebuiltTerms, id, title);
+                    rebuiltTitles.put(id, title);
+                }
+            );
+            rebuilt = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Change> changes = pendingChanges;
+                pendingChanges = null;
+                if (rebuilt) {
+                    // replaying a change already read from the table replaces the title by itself
+                    terms = rebuiltTerms;
+                    titles = rebuiltTitles;
+                    changes.forEach(this::apply);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed the titles of {} books in {} ms", titles.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Updates the title of a book in the index, once the current transaction commits.
+     *
+     * @param id the id of the book.
+     * @param title the title of the book, or {@code null} if the book is deleted.
+     */
+    public void update(Long id, String title) {
+        Change change = new Change(id, title);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            }
+        );
+    }
+
+    /**
+     * Returns the ids of the books matching the query, best matches first.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        List<String> queryTerms = terms(query);
+        if (queryTerms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        queryTerms = new ArrayList<>(new HashSet<>(queryTerms.subList(0, Math.min(queryTerms.size(), MAX_QUERY_TERMS))));
+        lock.readLock().lock();
+        try {
+            List<List<Match>> matches = new ArrayList<>();
+            for (String queryTerm : queryTerms) {
+                List<Match> termMatches = match(queryTerm);
+                if (termMatches.isEmpty()) {
+                    return Page.empty(pageable);
+                }
+                matches.add(termMatches);
+            }
+            // drive the search with the query term matching the fewest books
+            matches.sort(Comparator.comparingLong(BookSearchIndex::postingsSize));
+            return rank(matches, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Match> match(String queryTerm) {
+        List<Match> matches = new ArrayList<>();
+        Postings exact = terms.get(queryTerm);
+        if (exact != null) {
+            matches.add(new Match(exact, idf(exact)));
+        }
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Map.Entry<String, Postings> entry : terms.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                matches.add(new Match(entry.getValue(), idf(entry.getValue()) / 2));
+            }
+        }
+        return matches;
+    }
+
+    private double idf(Postings postings) {
+        return Math.log(1 + (double) Math.max(titles.size(), postings.size) / postings.size);
+    }
+
+    private Page<Long> rank(List<List<Match>> matches, Pageable pageable) {
+        int wanted = (int) Math.min(Integer.MAX_VALUE - 1, pageable.getOffset() + pageable.getPageSize());
+        Comparator<Hit> order = Comparator.comparingDouble((Hit hit) -> hit.score).reversed().thenComparingLong(hit -> hit.id);
+        // the worst of the best hits so far is at the head, so that it is the one to drop
+        PriorityQueue<Hit> best = new PriorityQueue<>(order.reversed());
+        Set<Long> seen = new HashSet<>();
+        long total = 0;
+        List<Match> driver = matches.get(0);
+        for (Match driverMatch : driver) {
+            for (int i = 0; i < driverMatch.postings.size; i++) {
+                long id = driverMatch.postings.ids[i];
+                if (driver.size() > 1 && !seen.add(id)) {
+                    continue;
+                }
+                double score = 0;
+                for (List<Match> termMatches : matches) {
+                    double termScore = score(termMatches, id);
+                    if (termScore == 0) {
+                        score = 0;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                best.add(new Hit(id, score));
+                if (best.size() > wanted) {
+                    best.poll();
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(order);
+        List<Long> ids = new ArrayList<>();
+        for (int i = (int) pageable.getOffset(); i < hits.size(); i++) {
+            ids.add(hits.get(i).id);
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private static double score(List<Match> termMatches, long id) {
+        double score = 0;
+        for (Match match : termMatches) {
+            if (match.weight > score && match.postings.contains(id)) {
+                score = match.weight;
+            }
+        }
+        return score;
+    }
+
+    private static long postingsSize(List<Match> matches) {
+        long size = 0;
+        for (Match match : matches) {
+            size += match.postings.size;
+        }
+        return size;
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            String previousTitle = change.title == null ? titles.remove(change.id) : titles.put(change.id, change.title);
+            if (previousTitle != null) {
+                for (String term : new HashSet<>(terms(previousTitle))) {
+                    Postings postings = terms.get(term);
+                    if (postings != null && postings.remove(change.id) && postings.size == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+            if (change.title != null) {
+                index(terms, change.id, change.title);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void index(TreeMap<String, Postings> terms, long id, String title) {
+        for (String term : terms(title)) {
+            terms.computeIfAbsent(term, t -> new Postings()).add(id);
+        }
+    }
+
+    /**
+     * Sorted ids of the books having a term.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+
+        private int size;
+
+        private boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+
+    private static final class Match {
+
+        private final Postings postings;
+
+        private final double weight;
+
+        private Match(Postings postings, double weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Hit {
+
+        private final long id;
+
+        private final double score;
+
+        private Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private static final class Change {
+
+        private final Long id;
+
+        private final String title;
+
+        private Change(Long id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.creditsuisse.task.service;
 
 import com.creditsuisse.task.service.dto.BookDTO;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -33,6 +34,24 @@ public interface BookService {
      */
     Page<BookDTO> findAll(Pageable pageable);
 
+    /**
+     * Search the books by title, best matches first.
+     *
+     * @param query the words of the title, the last ones possibly incomplete.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    Page<BookDTO> search(String query, Pageable pageable);
+
+    /**
+     * Suggest the books whose title or ISBN starts with the query, without querying the database.
+     *
+     * @param query the start of a title or an ISBN.
+     * @param size the maximum number of books to suggest.
+     * @return the list of entities.
+     */
+    List<BookDTO> suggest(String query, int size);
+
     /**
      * Get the "id" book.
      *
@@ -0,0 +1,345 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.service.dto.BookDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory prefix index of the book titles and ISBNs, for autocompletion without querying the database.
+ * <p>
+ * Every book has two keys: its title, normalized as the terms of {@link BookSearchIndex} separated by spaces, and its
+ * ISBN without separators. The keys built on startup are kept in sorted arrays, where the keys starting with a prefix
+ * are found by binary search. Later changes go to small concurrent sets of added and removed keys, merged into new
+ * arrays once they grow, so that lookups never lock.
+ * <p>
+ * The index is rebuilt every night, like {@link BookSearchIndex}, and kept current by the book writes of this instance
+ * once they are committed.
+ */
+@Service
+public class BookSuggestionIndex {
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private static final int MIN_MERGE_THRESHOLD = 1024;
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing((Key key) -> key.text).thenComparingLong(key -> key.id);
+
+    private final Logger log = LoggerFactory.getLogger(BookSuggestionIndex.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The titles and ISBNs of the indexed books, by id.
+     */
+    private volatile Map<Long, String[]> books = new ConcurrentHashMap<>();
+
+    private volatile Keys keys = new Keys(new String[0], new long[0]);
+
+    /**
+     * Changes applied while a rebuild is running, replayed on the rebuilt index.
+     */
+    private List<BookDTO> pendingChanges;
+
+    public BookSuggestionIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    static String titleKey(String title) {
+        return String.join(" ", BookSearchIndex.terms(title));
+    }
+
+    static String isbnKey(String isbn) {
+        return String.join("", BookSearchIndex.terms(isbn));
+    }
+
+    /**
+     * Rebuilds the whole index from the book table.
+     * <p>
+     * This is scheduled to get fired everyday, at 03:45 (am).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 45 3 * * ?")
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        Map<Long, String[]> rebuiltBooks = new ConcurrentHashMap<>();
+        List<Key> rebuiltKeys = new ArrayList<>();
+        boolean rebuilt = false;
+        try {
+            jdbcTemplate.query(
+                "select id, title, isbn from book",
+                rs -> {
+                    long id = rs.getLong("id");
+                    String title = rs.getString("title");
+                    String isbn = rs.getString("isbn");
+                    rebuiltBooks.put(id, new String[] { title, isbn });
+                    rebuiltKeys.add(new Key(titleKey(title), id));
+                    rebuiltKeys.add(new Key(isbnKey(isbn), id));
+                }
+            );
+            rebuilt = true;
+        } finally {
+            synchronized (this) {
+                List<BookDTO> changes = pendingChanges;
+                pendingChanges = null;
+                if (rebuilt) {
+                    rebuiltKeys.sort(KEY_ORDER);
+                    books = rebuiltBooks;
+                    keys = new Keys(rebuiltKeys);
+                    changes.forEach(this::apply);
+                }
+            }
+        }
+        log.info("Indexed the titles and ISBNs of {} books in {} ms", books.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Updates the title and ISBN of a book in the index, once the current transaction commits.
+     *
+     * @param id the id of the book.
+     * @param title the title of the book, or {@code null} if the book is deleted.
+     * @param isbn the ISBN of the book, or {@code null} if the book is deleted.
+     */
+    public void update(Long id, String title, String isbn) {
+        BookDTO change = new BookDTO();
+        change.setId(id);
+        change.setTitle(title);
+        change.setIsbn(isbn);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            }
+        );
+    }
+
+    /**
+     * Returns the books whose title or ISBN starts with the query, in the order of their normalized title or ISBN.
+     *
+     * @param query the start of a title or an ISBN.
+     * @param size the maximum number of books to return, at most {@link #MAX_SUGGESTIONS}.
+     * @return the suggested books.
+     */
+    public List<BookDTO> suggest(String query, int size) {
+        int limit = Math.min(size, MAX_SUGGESTIONS);
+        Keys current = keys;
+        Map<Long, String[]> currentBooks = books;
+        Set<Long> ids = new LinkedHashSet<>();
+        String titlePrefix = titleKey(query);
+        if (!titlePrefix.isEmpty()) {
+            current.collect(titlePrefix, ids, limit);
+        }
+        String isbnPrefix = isbnKey(query);
+        if (!isbnPrefix.isEmpty() && !isbnPrefix.equals(titlePrefix)) {
+            current.collect(isbnPrefix, ids, limit);
+        }
+        List<BookDTO> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String[] book = currentBooks.get(id);
+            if (book != null) {
+                BookDTO bookDTO = new BookDTO();
+                bookDTO.setId(id);
+                bookDTO.setTitle(book[0]);
+                bookDTO.setIsbn(book[1]);
+                suggestions.add(bookDTO);
+            }
+        }
+        return suggestions;
+    }
+
+    private synchronized void apply(BookDTO change) {
+        Keys current = keys;
+        String[] previous = change.getTitle() == null ? books.remove(change.getId()) : books.get(change.getId());
+        if (previous != null) {
+            current.remove(new Key(titleKey(previous[0]), change.getId()));
+            current.remove(new Key(isbnKey(previous[1]), change.getId()));
+        }
+        if (change.getTitle() != null) {
+            current.add(new Key(titleKey(change.getTitle()), change.getId()));
+            current.add(new Key(isbnKey(change.getIsbn()), change.getId()));
+            books.put(change.getId(), new String[] { change.getTitle(), change.getIsbn() });
+        }
+        if (current.changes > Math.max(MIN_MERGE_THRESHOLD, current.ids.length / 64)) {
+            keys = current.merge();
+        }
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+    }
+
+    /**
+     * Sorted keys, with the changes made since they were sorted.
+     */
+    private static final class Keys {
+
+        private final String[] texts;
+
+        private final long[] ids;
+
+        private final NavigableSet<Key> added = new ConcurrentSkipListSet<>(KEY_ORDER);
+
+        private final Set<Key> removed = ConcurrentHashMap.newKeySet();
+
+        private int changes;
+
+        private Keys(String[] texts, long[] ids) {
+            this.texts = texts;
+            this.ids = ids;
+        }
+
+        private Keys(List<Key> sortedKeys) {
+            this(new String[sortedKeys.size()], new long[sortedKeys.size()]);
+            for (int i = 0; i < texts.length; i++) {
+                texts[i] = sortedKeys.get(i).text;
+                ids[i] = sortedKeys.get(i).id;
+            }
+        }
+
+        private boolean contains(Key key) {
+            int index = Arrays.binarySearch(texts, key.text);
+            if (index < 0) {
+                return false;
+            }
+            // walk back to the first of the equal texts, sorted by id
+            while (index > 0 && texts[index - 1].equals(key.text)) {
+                index--;
+            }
+            for (; index < texts.length && texts[index].equals(key.text); index++) {
+                if (ids[index] == key.id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(Key key) {
+            changes++;
+            if (!removed.remove(key) && !contains(key)) {
+                added.add(key);
+            }
+        }
+
+        private void remove(Key key) {
+            changes++;
+            if (!added.remove(key) && contains(key)) {
+                removed.add(key);
+            }
+        }
+
+        /**
+         * Adds the ids of the keys starting with the prefix, in key order, until there are {@code limit} ids.
+         */
+        private void collect(String prefix, Set<Long> result, int limit) {
+            int index = firstIndex(prefix);
+            Iterator<Key> addedKeys = added.tailSet(new Key(prefix, Long.MIN_VALUE)).iterator();
+            Key nextAdded = next(addedKeys, prefix);
+            while (result.size() < limit) {
+                Key fromArray = index < texts.length && texts[index].startsWith(prefix) ? new Key(texts[index], ids[index]) : null;
+                if (fromArray == null && nextAdded == null) {
+                    return;
+                }
+                if (fromArray != null && (nextAdded == null || KEY_ORDER.compare(fromArray, nextAdded) < 0)) {
+                    index++;
+                    if (!removed.contains(fromArray)) {
+                        result.add(fromArray.id);
+                    }
+                } else {
+                    result.add(nextAdded.id);
+                    nextAdded = next(addedKeys, prefix);
+                }
+            }
+        }
+
+        private int firstIndex(String prefix) {
+            int low = 0;
+            int high = texts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (texts[middle].compareTo(prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static Key next(Iterator<Key> keys, String prefix) {
+            if (keys.hasNext()) {
+                Key key = keys.next();
+                if (key.text.startsWith(prefix)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        private Keys merge() {
+            List<Key> merged = new ArrayList<>(texts.length + added.size());
+            for (int i = 0; i < texts.length; i++) {
+                Key key = new Key(texts[i], ids[i]);
+                if (!removed.contains(key)) {
+                    merged.add(key);
+                }
+            }
+            merged.addAll(added);
+            merged.sort(KEY_ORDER);
+            return new Keys(merged);
+        }
+    }
+
+    private static final class Key {
+
+        private final String text;
+
+        private final long id;
+
+        private Key(String text, long id) {
+            this.text = text;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return id == key.id && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + Long.hashCode(id);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import com.creditsuisse.task.config.Constants;
+import com.creditsuisse.task.repository.IdGeneratorRepository;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Generates a large synthetic catalog on startup, for load and scale testing.
+ * <p>
+ * Enabled with the {@link Constants#SPRING_PROFILE_GENERATOR} profile, for example
+ * {@code ./mvnw -Dspring-boot.run.profiles=dev,generator}, and sized by the {@code application.generator.*} properties.
+ * Rows are written with JDBC batch inserts, bypassing JPA, with ids reserved by blocks from the id generator.
+ * The generation is skipped when the catalog already holds the requested number of books.
+ * <p>
+ * Book popularity follows a Zipf distribution: the book of rank {@code r} has a popularity of {@code 1 / r^skew},
+ * which scales both its number of copies and the length of the rental history of each copy.
+ * Patrons are skewed too, a small share of them being responsible for most of the rentals.
+ */
+@Service
+@Profile(Constants.SPRING_PROFILE_GENERATOR)
+public class CatalogGenerator implements ApplicationRunner {
+
+    private static final String INSERT_BOOK = "insert into book (id, title, isbn) values (?, ?, ?)";
+
+    private static final String INSERT_PATRON = "insert into patron (id, name, date_of_birth, phone_number) values (?, ?, ?, ?)";
+
+    private static final String INSERT_INVENTORY = "insert into inventory (id, book_id) values (?, ?)";
+
+    private static final String INSERT_RENTAL =
+        "insert into rental (id, rental_date, return_date, patron_id, inventory_id) values (?, ?, ?, ?, ?)";
+
+    private static final String[] TITLE_ADJECTIVES = {
+        "Silent",
+        "Lost",
+        "Hidden",
+        "Last",
+        "Broken",
+        "Golden",
+        "Dark",
+        "Secret",
+        "Wild",
+        "Forgotten",
+        "Little",
+        "Endless",
+    };
+
+    private static final String[] TITLE_NOUNS = {
+        "River",
+        "Garden",
+        "Kingdom",
+        "Winter",
+        "House",
+        "Empire",
+        "Shadow",
+        "Island",
+        "Mountain",
+        "Letter",
+        "Storm",
+        "Library",
+        "Journey",
+        "Machine",
+    };
+
+    private static final String[] FIRST_NAMES = { "Anna", "Ben", "Clara", "David", "Eva", "Felix", "Hanna", "Jonas", "Lena", "Marco" };
+
+    private static final String[] LAST_NAMES = { "Meier", "Keller", "Brunner", "Rossi", "Weber", "Fischer", "Huber", "Schmid", "Frei" };
+
+    private final Logger log = LoggerFactory.getLogger(CatalogGenerator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final IdGeneratorRepository idGeneratorRepository;
+
+    private final ApplicationProperties.Generator properties;
+
+    public CatalogGenerator(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        BookAvailabilityService bookAvailabilityService,
+        IdGeneratorRepository idGeneratorRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookAvailabilityService = bookAvailabilityService;
+        this.idGeneratorRepository = idGeneratorRepository;
+        this.properties = applicationProperties.getGenerator();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existingBooks = jdbcTemplate.queryForObject("select count(*) from book", Long.class);
+        if (existingBooks != null && existingBooks >= properties.getBooks()) {
+            log.info("Skipping catalog generation, {} books already exist", existingBooks);
+            return;
+        }
+        log.info(
+            "Generating a catalog of {} books and {} patrons, in batches of {} rows",
+            properties.getBooks(),
+            properties.getPatrons(),
+            properties.getBatchSize()
+        );
+        long start = System.nanoTime();
+        new Generation(new SplittableRandom(properties.getSeed())).run();
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.rebuild());
+        log.info("Generated the catalog in {} s", (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    /**
+     * State of a single generation run: the ids reserved for each table and the rows waiting for the next batch.
+     * <p>
+     * Pending books, inventory items and rentals are flushed together, in foreign key order, in one transaction.
+     */
+    private final class Generation {
+
+        private final SplittableRandom random;
+
+        private final LocalDate today = LocalDate.now();
+
+        private final long firstPatronId = idGeneratorRepository.reserve("patron", properties.getPatrons());
+
+        private final IdBlock bookIds = new IdBlock("book");
+
+        private final IdBlock inventoryIds = new IdBlock("inventory");
+
+        private final IdBlock rentalIds = new IdBlock("rental");
+
+        private long lastBookId;
+
+        private final List<Object[]> books = new ArrayList<>();
+
+        private final List<Object[]> inventories = new ArrayList<>();
+
+        private final List<Object[]> rentals = new ArrayList<>();
+
+        private long insertedRows;
+
+        private Generation(SplittableRandom random) {
+            this.random = random;
+        }
+
+        private void run() {
+            generatePatrons();
+            for (int rank = 1; rank <= properties.getBooks(); rank++) {
+                generateBook(Math.pow(rank, -properties.getPopularitySkew()));
+                if (books.size() + inventories.size() + rentals.size() >= properties.getBatchSize()) {
+                    flush();
+                }
+            }
+            flush();
+        }
+
+        private void generatePatrons() {
+            List<Object[]> patrons = new ArrayList<>(properties.getBatchSize());
+            for (long id = firstPatronId; id < firstPatronId + properties.getPatrons(); id++) {
+                String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                LocalDate dateOfBirth = today.minusYears(16 + random.nextInt(70)).minusDays(random.nextInt(365));
+                patrons.add(new Object[] { id, name, Date.valueOf(dateOfBirth), String.format("+41 %09d", id) });
+                if (patrons.size() >= properties.getBatchSize()) {
+                    insert(INSERT_PATRON, patrons);
+                }
+            }
+            insert(INSERT_PATRON, patrons);
+        }
+
+        private void generateBook(double popularity) {
+            long book = bookIds.next();
+            lastBookId = book;
+            books.add(new Object[] { book, title(), isbn(book) });
+            int copies = 1 + (int) ((properties.getMaxCopiesPerBook() - 1) * popularity);
+            // histories fall off more slowly than copy counts, so that long tail titles still circulate
+            int maxHistory = 1 + (int) ((properties.getMaxRentalsPerCopy() - 1) * Math.sqrt(popularity));
+            for (int copy = 0; copy < copies; copy++) {
+                long inventory = inventoryIds.next();
+                inventories.add(new Object[] { inventory, book });
+                generateRentals(inventory, random.nextInt(maxHistory + 1));
+            }
+        }
+
+        private void generateRentals(long inventory, int history) {
+            boolean rent = random.nextDouble() < properties.getRentRatio();
+            LocalDate rentalDate = today.minusDays(rent ? random.nextInt(28) : 0);
+            if (rent) {
+                rentals.add(new Object[] { rentalIds.next(), Date.valueOf(rentalDate), null, randomPatron(), inventory });
+            }
+            for (int i = 0; i < history; i++) {
+                LocalDate returnDate = rentalDate.minusDays(random.nextInt(14));
+                rentalDate = returnDate.minusDays(7 + random.nextInt(21));
+                rentals.add(
+                    new Object[] { rentalIds.next(), Date.valueOf(rentalDate), Date.valueOf(returnDate), randomPatron(), inventory }
+                );
+            }
+        }
+
+        private long randomPatron() {
+            // squaring a uniform variable favours the lower ids, making some patrons much more active than others
+            double u = random.nextDouble();
+            return firstPatronId + (long) (properties.getPatrons() * u * u);
+        }
+
+        private String title() {
+            return (
+                "The " +
+                TITLE_ADJECTIVES[random.nextInt(TITLE_ADJECTIVES.length)] +
+                " " +
+                TITLE_NOUNS[random.nextInt(TITLE_NOUNS.length)] +
+                (random.nextBoolean() ? "" : " of the " + TITLE_NOUNS[random.nextInt(TITLE_NOUNS.length)])
+            );
+        }
+
+        private String isbn(long id) {
+            String digits = String.format("978%09d", id % 1_000_000_000L);
+            int sum = 0;
+            for (int i = 0; i < digits.length(); i++) {
+                sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+            }
+            return digits + (10 - sum % 10) % 10;
+        }
+
+        private void flush() {
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                    insert(INSERT_BOOK, books);
+                    insert(INSERT_INVENTORY, inventories);
+                    insert(INSERT_RENTAL, rentals);
+                }
+            );
+            log.debug("Generated {} rows, up to book {}", insertedRows, lastBookId);
+        }
+
+        private void insert(String sql, List<Object[]> rows) {
+            if (!rows.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+                insertedRows += rows.size();
+                rows.clear();
+            }
+        }
+    }
+
+    /**
+     * Ids of a table, reserved from the id generator one batch at a time.
+     */
+    private final class IdBlock {
+
+        private final String table;
+
+        private long next;
+
+        private long end;
+
+        private IdBlock(String table) {
+            this.table = table;
+        }
+
+        private long next() {
+            if (next == end) {
+                next = idGeneratorRepository.reserve(table, properties.getBatchSize());
+                end = next + properties.getBatchSize();
+            }
+            return next++;
+        }
+    }
+}
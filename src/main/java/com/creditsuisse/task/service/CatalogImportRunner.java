@@ -0,0 +1,73 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import com.creditsuisse.task.config.Constants;
+import com.creditsuisse.task.service.dto.CatalogImportRejectDTO;
+import com.creditsuisse.task.service.dto.CatalogImportReportDTO;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Imports a catalog file on startup with the {@link CatalogImportService}.
+ * <p>
+ * Enabled with the {@link Constants#SPRING_PROFILE_IMPORT} profile, for example
+ * {@code ./mvnw -Dspring-boot.run.profiles=dev,import -Dspring-boot.run.arguments=--application.catalog-import.file=feed.csv}.
+ * Rejected lines are written next to the file, to {@code <file>.rejects}, one per line as the line number, the reason
+ * and the content separated by tabs.
+ */
+@Service
+@Profile(Constants.SPRING_PROFILE_IMPORT)
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private final Logger log = LoggerFactory.getLogger(CatalogImportRunner.class);
+
+    private final CatalogImportService catalogImportService;
+
+    private final ApplicationProperties.CatalogImport properties;
+
+    public CatalogImportRunner(CatalogImportService catalogImportService, ApplicationProperties applicationProperties) {
+        this.catalogImportService = catalogImportService;
+        this.properties = applicationProperties.getCatalogImport();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (properties.getFile() == null) {
+            log.warn("Skipping catalog import, application.catalog-import.file is not set");
+            return;
+        }
+        Path file = Paths.get(properties.getFile());
+        Path rejectsFile = Paths.get(properties.getFile() + ".rejects");
+        log.info("Importing the catalog {}", file);
+        try (
+            InputStream input = Files.newInputStream(file);
+            BufferedWriter rejects = Files.newBufferedWriter(rejectsFile, StandardCharsets.UTF_8)
+        ) {
+            CatalogImportReportDTO report = catalogImportService.importBooks(input, reject -> write(rejects, reject));
+            if (report.getRejected() > 0) {
+                log.warn("Rejected {} lines of the catalog, see {}", report.getRejected(), rejectsFile);
+            }
+        }
+    }
+
+    private void write(BufferedWriter rejects, CatalogImportRejectDTO reject) {
+        try {
+            rejects.write(reject.getLine() + "\t" + reject.getReason() + "\t" + reject.getContent());
+            rejects.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the catalog import rejects", e);
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.repository.IdGeneratorRepository;
+import com.creditsuisse.task.service.dto.CatalogImportRejectDTO;
+import com.creditsuisse.task.service.dto.CatalogImportReportDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streaming import of books, upserted by ISBN.
+ * <p>
+ * The input holds one book per line, either as CSV ({@code isbn,title}, with an optional header line naming the
+ * columns, and quoted fields without line breaks) or as a JSON object ({@code {"isbn": ..., "title": ...}}).
+ * The calling thread parses the lines into batches of {@code application.catalog-import.batch-size} books, and hands
+ * them over bounded queues to {@code writer-threads} writers, so that the parser blocks whenever the writers fall behind
+ * and memory stays bounded whatever the size of the input. Books are routed to a writer by the hash of their ISBN, so
+ * that all the lines of an ISBN are written in order by the same writer, and the last one wins.
+ * <p>
+ * Each writer upserts a batch in one transaction with JDBC batch statements: books with a known ISBN get their title
+ * updated, the others are inserted with ids reserved from the id generator. A batch racing another import or a book
+ * creation on a new ISBN fails on {@code ux_book__isbn}, and is retried once, then book by book if it fails again.
+ * Updated books are evicted from the second level cache, and the titles are updated in the {@link BookSearchIndex} and
+ * the {@link BookSuggestionIndex}, once their batch has committed.
+ * <p>
+ * Lines which cannot be parsed or validated are rejected, without stopping the import. Every reject is passed to the
+ * given listener, and the first ones are kept in the report.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final List<ImportedBook> END = Collections.emptyList();
+
+    private static final String SELECT_BOOKS = "select id, isbn, title from book where isbn in (:isbns)";
+
+    private static final String UPDATE_BOOK = "update book set title = ? where id = ?";
+
+    private static final String INSERT_BOOK = "insert into book (id, title, isbn) values (?, ?, ?)";
+
+    private static final int MAX_LENGTH = 255;
+
+    private static final int MAX_REJECT_CONTENT_LENGTH = 200;
+
+    private static final long PROGRESS_INTERVAL = 100_000;
+
+    private final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final IdGeneratorRepository idGeneratorRepository;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookSuggestionIndex bookSuggestionIndex;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.CatalogImport properties;
+
+    public CatalogImportService(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        IdGeneratorRepository idGeneratorRepository,
+        EntityManagerFactory entityManagerFactory,
+        BookSearchIndex bookSearchIndex,
+        BookSuggestionIndex bookSuggestionIndex,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idGeneratorRepository = idGeneratorRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestionIndex = bookSuggestionIndex;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getCatalogImport();
+    }
+
+    /**
+     * Imports the books of the given UTF-8 input, which is read once and not closed.
+     *
+     * @param input the CSV or JSON lines.
+     * @param rejectListener called with every rejected line, from the parsing and the writing threads, one at a time.
+     * @return the import report.
+     * @throws IOException if the input cannot be read.
+     */
+    public CatalogImportReportDTO importBooks(InputStream input, Consumer<CatalogImportRejectDTO> rejectListener) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return new Run(rejectListener).execute(reader);
+    }
+
+    /**
+     * Splits a CSV line into its fields, or returns {@code null} if a quoted field is not closed.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * State of a single import: the queues between the parser and the writers, and the counters of the report.
+     */
+    private final class Run {
+
+        private final Consumer<CatalogImportRejectDTO> rejectListener;
+
+        /**
+         * Queue of each writer, sharing the configured capacity.
+         */
+        private final List<BlockingQueue<List<ImportedBook>>> queues = new ArrayList<>();
+
+        private final CatalogImportReportDTO report = new CatalogImportReportDTO();
+
+        private final AtomicLong inserted = new AtomicLong();
+
+        private final AtomicLong updated = new AtomicLong();
+
+        private final AtomicLong unchanged = new AtomicLong();
+
+        private volatile RuntimeException failure;
+
+        private boolean firstLine = true;
+
+        private int isbnColumn = 0;
+
+        private int titleColumn = 1;
+
+        private Run(Consumer<CatalogImportRejectDTO> rejectListener) {
+            this.rejectListener = rejectListener;
+            int capacity = Math.max(1, properties.getQueueCapacity() / properties.getWriterThreads());
+            for (int i = 0; i < properties.getWriterThreads(); i++) {
+                queues.add(new ArrayBlockingQueue<>(capacity));
+            }
+        }
+
+        private CatalogImportReportDTO execute(BufferedReader reader) throws IOException {
+            long start = System.nanoTime();
+            ExecutorService writers = Executors.newFixedThreadPool(
+                properties.getWriterThreads(),
+                new CustomizableThreadFactory("catalog-import-")
+            );
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (BlockingQueue<List<ImportedBook>> queue : queues) {
+                    futures.add(writers.submit(() -> write(queue)));
+                }
+                parse(reader);
+                for (BlockingQueue<List<ImportedBook>> queue : queues) {
+                    put(queue, END);
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Catalog import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Catalog import writer failed", e.getCause());
+            } finally {
+                writers.shutdownNow();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            synchronized (this) {
+                report.setInserted(inserted.get());
+                report.setUpdated(updated.get());
+                report.setUnchanged(unchanged.get());
+                report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                log.info("Imported the catalog: {}", report);
+                return report;
+            }
+        }
+
+        private void parse(BufferedReader reader) throws IOException, InterruptedException {
+            List<List<ImportedBook>> batches = new ArrayList<>();
+            for (int i = 0; i < queues.size(); i++) {
+                batches.add(new ArrayList<>(properties.getBatchSize()));
+            }
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber % PROGRESS_INTERVAL == 0) {
+                    log.info(
+                        "Importing the catalog: {} lines read, {} books inserted, {} updated",
+                        lineNumber,
+                        inserted.get(),
+                        updated.get()
+                    );
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                ImportedBook book = parse(line, lineNumber);
+                if (book != null) {
+                    int writer = Math.floorMod(book.isbn.hashCode(), queues.size());
+                    List<ImportedBook> batch = batches.get(writer);
+                    batch.add(book);
+                    if (batch.size() == properties.getBatchSize()) {
+                        put(queues.get(writer), batch);
+                        batches.set(writer, new ArrayList<>(properties.getBatchSize()));
+                    }
+                }
+            }
+            for (int i = 0; i < queues.size(); i++) {
+                if (!batches.get(i).isEmpty()) {
+                    put(queues.get(i), batches.get(i));
+                }
+            }
+            synchronized (this) {
+                report.setLines(lineNumber);
+            }
+        }
+
+        private ImportedBook parse(String line, long lineNumber) {
+            if (firstLine && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            boolean header = firstLine;
+            firstLine = false;
+            String isbn;
+            String title;
+            if (line.trim().startsWith("{")) {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    reject(lineNumber, "invalid JSON", line);
+                    return null;
+                }
+                isbn = text(node, "isbn");
+                title = text(node, "title");
+            } else {
+                List<String> fields = splitCsvLine(line);
+                if (fields == null) {
+                    reject(lineNumber, "unclosed quote", line);
+                    return null;
+                }
+                if (header && readHeader(fields)) {
+                    return null;
+                }
+                isbn = fields.size() > isbnColumn ? fields.get(isbnColumn) : null;
+                title = fields.size() > titleColumn ? fields.get(titleColumn) : null;
+            }
+            isbn = isbn == null ? "" : isbn.trim();
+            title = title == null ? "" : title.trim();
+            if (isbn.isEmpty()) {
+                reject(lineNumber, "missing isbn", line);
+            } else if (title.isEmpty()) {
+                reject(lineNumber, "missing title", line);
+            } else if (isbn.length() > MAX_LENGTH || title.length() > MAX_LENGTH) {
+                reject(lineNumber, "isbn or title too long", line);
+            } else {
+                return new ImportedBook(lineNumber, isbn, title);
+            }
+            return null;
+        }
+
+        /**
+         * Reads the column positions from a header line, returning {@code false} if the line is not a header.
+         */
+        private boolean readHeader(List<String> fields) {
+            int isbn = -1;
+            int title = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                String name = fields.get(i).trim();
+                if ("isbn".equalsIgnoreCase(name)) {
+                    isbn = i;
+                } else if ("title".equalsIgnoreCase(name)) {
+                    title = i;
+                }
+            }
+            if (isbn < 0 || title < 0) {
+                return false;
+            }
+            isbnColumn = isbn;
+            titleColumn = title;
+            return true;
+        }
+
+        private void put(BlockingQueue<List<ImportedBook>> queue, List<ImportedBook> batch) throws InterruptedException {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        }
+
+        private void write(BlockingQueue<List<ImportedBook>> queue) {
+            try {
+                List<ImportedBook> batch;
+                while ((batch = queue.take()) != END) {
+                    upsert(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Catalog import writer failed", e);
+                failure = e;
+            }
+        }
+
+        private void upsert(List<ImportedBook> batch) {
+            // a later line of the same ISBN supersedes the earlier ones
+            Map<String, ImportedBook> books = new LinkedHashMap<>();
+            for (ImportedBook book : batch) {
+                if (books.put(book.isbn, book) != null) {
+                    unchanged.incrementAndGet();
+                }
+            }
+            try {
+                count(transactionTemplate.execute(status -> upsertBatch(books)));
+            } catch (DuplicateKeyException e) {
+                log.debug("Retrying a catalog import batch inserting an ISBN concurrently inserted: {}", e.getMessage());
+                try {
+                    count(transactionTemplate.execute(status -> upsertBatch(books)));
+                } catch (DuplicateKeyException retryException) {
+                    log.debug("Retrying a catalog import batch book by book: {}", retryException.getMessage());
+                    books.values().forEach(this::upsertOne);
+                }
+            }
+        }
+
+        /**
+         * Upserts a single book, so that a conflict on its ISBN only rejects this book.
+         */
+        private void upsertOne(ImportedBook book) {
+            try {
+                count(transactionTemplate.execute(status -> upsertBatch(Map.of(book.isbn, book))));
+            } catch (DuplicateKeyException e) {
+                reject(book.line, "duplicate isbn", book.isbn + "," + book.title);
+            }
+        }
+
+        private void count(BatchResult result) {
+            inserted.addAndGet(result.inserted);
+            updated.addAndGet(result.updatedIds.size());
+            unchanged.addAndGet(result.unchanged);
+            result.updatedIds.forEach(id -> entityManagerFactory.getCache().evict(Book.class, id));
+        }
+
+        private BatchResult upsertBatch(Map<String, ImportedBook> books) {
+            Map<String, Long> existingIds = new HashMap<>();
+            Map<String, String> existingTitles = new HashMap<>();
+            jdbcTemplate.query(
+                SELECT_BOOKS,
+                Map.of("isbns", books.keySet()),
+                rs -> {
+                    existingIds.put(rs.getString("isbn"), rs.getLong("id"));
+                    existingTitles.put(rs.getString("isbn"), rs.getString("title"));
+                }
+            );
+            BatchResult result = new BatchResult();
+            List<Object[]> updates = new ArrayList<>();
+            List<ImportedBook> newBooks = new ArrayList<>();
+            for (ImportedBook book : books.values()) {
+                Long id = existingIds.get(book.isbn);
+                if (id == null) {
+                    newBooks.add(book);
+                } else if (book.title.equals(existingTitles.get(book.isbn))) {
+                    result.unchanged++;
+                } else {
+                    updates.add(new Object[] { book.title, id });
+                    result.updatedIds.add(id);
+                    bookSearchIndex.update(id, book.title);
+                    bookSuggestionIndex.update(id, book.title, book.isbn);
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_BOOK, updates);
+            }
+            if (!newBooks.isEmpty()) {
+                long id = idGeneratorRepository.reserve("book", newBooks.size());
+                List<Object[]> inserts = new ArrayList<>(newBooks.size());
+                for (ImportedBook book : newBooks) {
+                    bookSearchIndex.update(id, book.title);
+                    bookSuggestionIndex.update(id, book.title, book.isbn);
+                    inserts.add(new Object[] { id++, book.title, book.isbn });
+                }
+                jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_BOOK, inserts);
+                result.inserted = inserts.size();
+            }
+            return result;
+        }
+
+        private synchronized void reject(long line, String reason, String content) {
+            String truncated = content.length() > MAX_REJECT_CONTENT_LENGTH ? content.substring(0, MAX_REJECT_CONTENT_LENGTH) : content;
+            CatalogImportRejectDTO reject = new CatalogImportRejectDTO(line, reason, truncated);
+            report.setRejected(report.getRejected() + 1);
+            if (report.getRejects().size() < properties.getMaxReportedRejects()) {
+                report.getRejects().add(reject);
+            }
+            rejectListener.accept(reject);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static final class ImportedBook {
+
+        private final long line;
+
+        private final String isbn;
+
+        private final String title;
+
+        private ImportedBook(long line, String isbn, String title) {
+            this.line = line;
+            this.isbn = isbn;
+            this.title = title;
+        }
+    }
+
+    private static final class BatchResult {
+
+        private int inserted;
+
+        private int unchanged;
+
+        private final List<Long> updatedIds = new ArrayList<>();
+    }
+}
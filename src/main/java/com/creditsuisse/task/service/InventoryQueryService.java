@@ -63,6 +63,20 @@ public class InventoryQueryService extends QueryService<Inventory> {
         return inventoryRepository.findAll(specification, page).map(inventoryMapper::toDto);
     }
 
+    /**
+     * Return a {@link List} of {@link InventoryDTO} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous page, the first page is returned when it is {@code null}.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<InventoryDTO> findByCriteria(InventoryCriteria criteria, Long after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Inventory> specification = createSpecification(criteria);
+        return inventoryMapper.toDto(inventoryRepository.findAllAfter(specification, after, size));
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -86,6 +100,9 @@ public class InventoryQueryService extends QueryService<Inventory> {
             if (criteria.getId() != null) {
                 specification = specification.and(buildRangeSpecification(criteria.getId(), Inventory_.id));
             }
+            if (criteria.getBarcode() != null) {
+                specification = specification.and(buildStringSpecification(criteria.getBarcode(), Inventory_.barcode));
+            }
             if (criteria.getBookId() != null) {
                 specification =
                     specification.and(
@@ -1,5 +1,7 @@
 package com.creditsuisse.task.service;
 
+import com.creditsuisse.task.service.dto.BulkInventoryDTO;
+import com.creditsuisse.task.service.dto.BulkInventoryResultDTO;
 import com.creditsuisse.task.service.dto.InventoryDTO;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
@@ -17,6 +19,15 @@ public interface InventoryService {
      */
     InventoryDTO save(InventoryDTO inventoryDTO);
 
+    /**
+     * Add several copies of a book with batched inserts, in one transaction.
+     * The copies get consecutive ids, and their creation is recorded in the entity audit trail once committed.
+     *
+     * @param bulkInventoryDTO the book, and the number of copies or their barcodes.
+     * @return the id range of the created copies.
+     */
+    BulkInventoryResultDTO createAll(BulkInventoryDTO bulkInventoryDTO);
+
     /**
      * Partially updates a inventory.
      *
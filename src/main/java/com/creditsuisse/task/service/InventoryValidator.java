@@ -1,6 +1,6 @@
 package com.creditsuisse.task.service;
 
-import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.repository.InventoryRepository;
 import com.creditsuisse.task.repository.RentalRepository;
 import com.creditsuisse.task.service.exception.ItemAlreadyRentException;
 import java.util.List;
@@ -13,29 +13,32 @@ public class InventoryValidator {
 
     private final RentalRepository rentalRepository;
 
-    public InventoryValidator(RentalRepository rentalRepository) {
+    private final InventoryRepository inventoryRepository;
+
+    public InventoryValidator(RentalRepository rentalRepository, InventoryRepository inventoryRepository) {
         this.rentalRepository = rentalRepository;
+        this.inventoryRepository = inventoryRepository;
     }
 
+    /**
+     * Asserts that the inventory item has no open rental other than {@code rentalId}.
+     * <p>
+     * The inventory row stays locked until the calling transaction ends, so concurrent checkouts
+     * of the same copy are serialized while checkouts of other copies are not.
+     *
+     * @param inventoryId the id of the inventory item to rent.
+     * @param rentalId the id of the rental being updated, or {@code null} for a new rental.
+     */
     public void assertIsReturned(Long inventoryId, Long rentalId) {
-        final List<Rental> rentalsOfInventory = rentalRepository.findAllByInventory_Id(inventoryId);
-        if (rentalsOfInventory.isEmpty() || isRentalUpdate(rentalsOfInventory, rentalId) || isReturned(rentalsOfInventory)) {
+        inventoryRepository.lockById(inventoryId);
+        final List<Long> rentIds = rentalRepository.findRentIdsByInventoryId(inventoryId);
+        if (rentIds.isEmpty() || isRentalUpdate(rentIds, rentalId)) {
             return;
         }
         throw new ItemAlreadyRentException();
     }
 
-    private boolean isRentalUpdate(List<Rental> rentalsOfInventory, Long rentalId) {
-        final long underRentCounter = rentalsOfInventory.stream().filter(rental -> rental.getReturnDate() == null).count();
-
-        return underRentCounter == 1 && getRentalId(rentalsOfInventory).equals(rentalId);
-    }
-
-    private Long getRentalId(List<Rental> rentalsOfInventory) {
-        return rentalsOfInventory.stream().filter(rental -> rental.getReturnDate() == null).findFirst().get().getId();
-    }
-
-    private boolean isReturned(List<Rental> rentalsOfInventory) {
-        return rentalsOfInventory.stream().allMatch(rental -> rental.getReturnDate() != null);
+    private boolean isRentalUpdate(List<Long> rentIds, Long rentalId) {
+        return rentIds.size() == 1 && rentIds.get(0).equals(rentalId);
     }
 }
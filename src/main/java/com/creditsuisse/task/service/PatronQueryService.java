@@ -63,6 +63,20 @@ public class PatronQueryService extends QueryService<Patron> {
         return patronRepository.findAll(specification, page).map(patronMapper::toDto);
     }
 
+    /**
+     * Return a {@link List} of {@link PatronDTO} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous page, the first page is returned when it is {@code null}.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<PatronDTO> findByCriteria(PatronCriteria criteria, Long after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Patron> specification = createSpecification(criteria);
+        return patronMapper.toDto(patronRepository.findAllAfter(specification, after, size));
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
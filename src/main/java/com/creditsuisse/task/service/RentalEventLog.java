@@ -0,0 +1,394 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Append-only local log of rental events, stored in memory-mapped segment files and read by offset.
+ * <p>
+ * Every record gets the next offset, starting from 0. A segment file is named after the offset of its first record, and
+ * holds records as a 4 bytes length followed by the payload; a zero length marks the end of the written part.
+ * Records are only appended by the {@link RentalEventRelay}, while any number of consumers can read concurrently.
+ * The relay delivers events at least once, so consumers should skip events which id they already saw.
+ * <p>
+ * Each segment keeps a sparse index of the position of a record every {@value #INDEX_INTERVAL_BYTES} bytes, so that a
+ * read only scans from the closest indexed record. Only the last {@code application.rental-events.retained-segments}
+ * segments are kept: older ones are unmapped and deleted, and reads from their offsets start at the oldest retained record.
+ * <p>
+ * Like the {@link RentalEventRelay} writing it, the log only exists on the instance where
+ * {@code application.rental-events.relay-enabled} is true. Once closed, it can no longer be appended to.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.rental-events", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class RentalEventLog {
+
+    static final int INDEX_INTERVAL_BYTES = 4096;
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+
+    private final Logger log = LoggerFactory.getLogger(RentalEventLog.class);
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int retainedSegments;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Held by readers while they use the mapped segments, and exclusively to unmap them.
+     */
+    private final ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+
+    private Segment activeSegment;
+
+    /**
+     * Set by {@link #close()}, once the segments are unmapped; guarded by the monitor of the log, like the appends.
+     */
+    private boolean closed;
+
+    private volatile long nextOffset;
+
+    public RentalEventLog(ApplicationProperties applicationProperties) {
+        this.directory = Paths.get(applicationProperties.getRentalEvents().getLogPath());
+        this.segmentSize = applicationProperties.getRentalEvents().getSegmentSizeBytes();
+        this.retainedSegments = Math.max(1, applicationProperties.getRentalEvents().getRetainedSegments());
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long baseOffset = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(baseOffset, new Segment(baseOffset, file, map(file, Files.size(file))));
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, new Segment(0L, segmentFile(0), map(segmentFile(0), segmentSize)));
+        }
+
+        long offset = 0;
+        for (Segment segment : segments.values()) {
+            offset = segment.recover();
+        }
+        activeSegment = segments.lastEntry().getValue();
+        nextOffset = offset;
+        log.debug("Opened the rental event log in {} at offset {}", directory, nextOffset);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (activeSegment != null) {
+            activeSegment.buffer.force();
+            activeSegment = null;
+        }
+        mappingLock.writeLock().lock();
+        try {
+            segments.values().forEach(segment -> unmap(segment.buffer));
+            segments.clear();
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the offset the next appended record will get.
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Appends the payloads, forces them to disk, then makes them visible to readers.
+     * <p>
+     * If the append fails, the records already written are erased, so that the log is left as it was.
+     *
+     * @throws IllegalStateException if the log is closed.
+     */
+    public synchronized void append(List<byte[]> payloads) {
+        if (closed) {
+            throw new IllegalStateException("The rental event log is closed");
+        }
+        for (byte[] payload : payloads) {
+            if (LENGTH_BYTES + payload.length > segmentSize) {
+                throw new IllegalArgumentException("Rental event of " + payload.length + " bytes exceeds the log segment size");
+            }
+        }
+        Segment startSegment = activeSegment;
+        int startPosition = startSegment.buffer.position();
+        long offset = nextOffset;
+        try {
+            for (byte[] payload : payloads) {
+                if (activeSegment.buffer.remaining() < LENGTH_BYTES + payload.length) {
+                    roll(offset);
+                }
+                activeSegment.write(offset, payload);
+                offset++;
+            }
+            activeSegment.buffer.force();
+        } catch (RuntimeException e) {
+            rollback(startSegment, startPosition);
+            throw e;
+        }
+        nextOffset = offset;
+        deleteExpiredSegments();
+    }
+
+    /**
+     * Reads at most {@code maxRecords} records, starting at the given offset, or at the oldest retained one.
+     */
+    public List<Record> read(long fromOffset, int maxRecords) {
+        if (fromOffset < 0) {
+            throw new IllegalArgumentException("Negative rental event log offset: " + fromOffset);
+        }
+        long end = nextOffset;
+        List<Record> records = new ArrayList<>();
+        if (fromOffset >= end) {
+            return records;
+        }
+        mappingLock.readLock().lock();
+        try {
+            Map.Entry<Long, Segment> segment = segments.floorEntry(fromOffset);
+            if (segment == null) {
+                segment = segments.firstEntry();
+                if (segment == null) {
+                    return records;
+                }
+            }
+            Map.Entry<Long, Integer> indexed = segment.getValue().index.floorEntry(Math.max(fromOffset, segment.getKey()));
+            ByteBuffer buffer = segment.getValue().buffer.duplicate();
+            long offset = indexed.getKey();
+            int position = indexed.getValue();
+            while (offset < end && records.size() < maxRecords) {
+                int length = lengthAt(buffer, position);
+                if (length == 0) {
+                    segment = segments.higherEntry(segment.getKey());
+                    if (segment == null) {
+                        break;
+                    }
+                    buffer = segment.getValue().buffer.duplicate();
+                    offset = segment.getKey();
+                    position = 0;
+                    continue;
+                }
+                if (offset >= fromOffset) {
+                    byte[] payload = new byte[length];
+                    buffer.position(position + LENGTH_BYTES);
+                    buffer.get(payload);
+                    records.add(new Record(offset, payload));
+                }
+                position += LENGTH_BYTES + length;
+                offset++;
+            }
+            return records;
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    private void roll(long baseOffset) {
+        activeSegment.buffer.force();
+        Path file = segmentFile(baseOffset);
+        activeSegment = new Segment(baseOffset, file, map(file, segmentSize));
+        segments.put(baseOffset, activeSegment);
+        log.debug("Rolled the rental event log to a new segment at offset {}", baseOffset);
+    }
+
+    /**
+     * Erases what a failed append wrote, and drops the segments it created.
+     */
+    private void rollback(Segment startSegment, int startPosition) {
+        mappingLock.writeLock().lock();
+        try {
+            for (Segment segment : new ArrayList<>(segments.tailMap(startSegment.baseOffset, false).values())) {
+                delete(segment);
+            }
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+        MappedByteBuffer buffer = startSegment.buffer;
+        for (int position = startPosition; position < buffer.position(); position++) {
+            buffer.put(position, (byte) 0);
+        }
+        buffer.position(startPosition);
+        buffer.force();
+        startSegment.index.tailMap(nextOffset, nextOffset > startSegment.baseOffset).clear();
+        startSegment.indexedPosition = startSegment.index.lastEntry().getValue();
+        activeSegment = startSegment;
+        log.warn("Rolled back a failed append to the rental event log at offset {}", nextOffset);
+    }
+
+    private void deleteExpiredSegments() {
+        if (segments.size() <= retainedSegments) {
+            return;
+        }
+        mappingLock.writeLock().lock();
+        try {
+            while (segments.size() > retainedSegments) {
+                Segment segment = segments.firstEntry().getValue();
+                delete(segment);
+                log.debug("Deleted the rental event log segment at offset {}", segment.baseOffset);
+            }
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.baseOffset);
+        unmap(segment.buffer);
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            log.warn("Could not delete the rental event log segment {}", segment.file, e);
+        }
+    }
+
+    private Path segmentFile(long baseOffset) {
+        return directory.resolve(String.format("%020d%s", baseOffset, SEGMENT_SUFFIX));
+    }
+
+    private static int lengthAt(ByteBuffer buffer, int position) {
+        return position + LENGTH_BYTES <= buffer.capacity() ? buffer.getInt(position) : 0;
+    }
+
+    private static MappedByteBuffer map(Path file, long size) {
+        try (
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        ) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map the rental event log segment " + file, e);
+        }
+    }
+
+    /**
+     * Releases the mapping now instead of when the buffer is garbage collected, which keeps the file mapped until then.
+     * The buffer must not be used afterwards.
+     */
+    private void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not unmap a rental event log segment, it is released when garbage collected: {}", e.toString());
+        }
+    }
+
+    /**
+     * A segment file, with its sparse index of record positions by offset.
+     */
+    private static final class Segment {
+
+        private final long baseOffset;
+
+        private final Path file;
+
+        private final MappedByteBuffer buffer;
+
+        private final NavigableMap<Long, Integer> index = new ConcurrentSkipListMap<>();
+
+        private int indexedPosition;
+
+        private Segment(long baseOffset, Path file, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.file = file;
+            this.buffer = buffer;
+            index.put(baseOffset, 0);
+        }
+
+        /**
+         * Scans the records written before the log was opened, and returns the offset following them.
+         */
+        private long recover() {
+            long offset = baseOffset;
+            int position = 0;
+            int length;
+            while ((length = lengthAt(buffer, position)) > 0) {
+                indexIfDue(offset, position);
+                position += LENGTH_BYTES + length;
+                offset++;
+            }
+            buffer.position(position);
+            return offset;
+        }
+
+        private void write(long offset, byte[] payload) {
+            int position = buffer.position();
+            indexIfDue(offset, position);
+            // the payload is written before its length, which marks the record as complete
+            buffer.position(position + LENGTH_BYTES);
+            buffer.put(payload);
+            buffer.putInt(position, payload.length);
+        }
+
+        private void indexIfDue(long offset, int position) {
+            if (position - indexedPosition >= INDEX_INTERVAL_BYTES) {
+                index.put(offset, position);
+                indexedPosition = position;
+            }
+        }
+    }
+
+    /**
+     * A record of the log: its offset and its payload.
+     */
+    public static final class Record {
+
+        private final long offset;
+
+        private final byte[] payload;
+
+        private Record(long offset, byte[] payload) {
+            this.offset = offset;
+            this.payload = payload;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
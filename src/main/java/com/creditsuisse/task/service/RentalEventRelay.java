@@ -0,0 +1,91 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import com.creditsuisse.task.domain.RentalEvent;
+import com.creditsuisse.task.repository.RentalEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relays the {@link RentalEvent} outbox to the {@link RentalEventLog}.
+ * <p>
+ * Each batch of events is appended to the log, forced to disk, and only then deleted from the outbox, in one transaction.
+ * An event can therefore be appended twice if the application stops in between, but never lost.
+ * <p>
+ * The log is local to an instance, so only one instance may relay: the others set
+ * {@code application.rental-events.relay-enabled} to false, and create neither this bean nor the log.
+ * <p>
+ * A relay stops between batches once its thread is interrupted, as when the scheduler shuts down.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.rental-events", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class RentalEventRelay {
+
+    private final Logger log = LoggerFactory.getLogger(RentalEventRelay.class);
+
+    private final RentalEventRepository rentalEventRepository;
+
+    private final RentalEventLog rentalEventLog;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    public RentalEventRelay(
+        RentalEventRepository rentalEventRepository,
+        RentalEventLog rentalEventLog,
+        ObjectMapper objectMapper,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties
+    ) {
+        this.rentalEventRepository = rentalEventRepository;
+        this.rentalEventLog = rentalEventLog;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = applicationProperties.getRentalEvents().getRelayBatchSize();
+    }
+
+    @Scheduled(fixedDelayString = "${application.rental-events.relay-delay-millis:1000}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize && !Thread.currentThread().isInterrupted());
+    }
+
+    private int relayBatch() {
+        List<RentalEvent> events = rentalEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<byte[]> payloads = new ArrayList<>(events.size());
+        for (RentalEvent event : events) {
+            payloads.add(toPayload(event));
+        }
+        rentalEventLog.append(payloads);
+        rentalEventRepository.deleteAllByIdIn(events.stream().map(RentalEvent::getId).collect(Collectors.toList()));
+        log.debug("Relayed {} rental events", events.size());
+        return events.size();
+    }
+
+    private byte[] toPayload(RentalEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+    }
+}
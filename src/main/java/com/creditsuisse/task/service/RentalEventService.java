@@ -0,0 +1,67 @@
+package com.creditsuisse.task.service;
+
+import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.domain.RentalEvent;
+import com.creditsuisse.task.domain.enumeration.RentalEventType;
+import com.creditsuisse.task.repository.RentalEventRepository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service writing {@link RentalEvent}s to the outbox.
+ * <p>
+ * Events must be written in the transaction of the rental change they describe, so that they are committed, or rolled back, with it.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class RentalEventService {
+
+    private final RentalEventRepository rentalEventRepository;
+
+    public RentalEventService(RentalEventRepository rentalEventRepository) {
+        this.rentalEventRepository = rentalEventRepository;
+    }
+
+    public void rentalCreated(Rental rental) {
+        rentalEventRepository.save(toEvent(rental, RentalEventType.CREATED));
+    }
+
+    public void rentalsCreated(Collection<Rental> rentals) {
+        rentalEventRepository.saveAll(
+            rentals.stream().map(rental -> toEvent(rental, RentalEventType.CREATED)).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Records a change of the rental; a change setting the return date of a rent copy is recorded as a return.
+     */
+    public void rentalUpdated(Rental rental, boolean previouslyRent) {
+        boolean returned = previouslyRent && rental.getReturnDate() != null;
+        rentalEventRepository.save(toEvent(rental, returned ? RentalEventType.RETURNED : RentalEventType.UPDATED));
+    }
+
+    public void rentalsReturned(Collection<Rental> rentals) {
+        rentalEventRepository.saveAll(
+            rentals.stream().map(rental -> toEvent(rental, RentalEventType.RETURNED)).collect(Collectors.toList())
+        );
+    }
+
+    public void rentalDeleted(Rental rental) {
+        rentalEventRepository.save(toEvent(rental, RentalEventType.DELETED));
+    }
+
+    private RentalEvent toEvent(Rental rental, RentalEventType type) {
+        return new RentalEvent()
+            .type(type)
+            .rentalId(rental.getId())
+            .patronId(rental.getPatron() == null ? null : rental.getPatron().getId())
+            .inventoryId(rental.getInventory() == null ? null : rental.getInventory().getId())
+            .rentalDate(rental.getRentalDate())
+            .returnDate(rental.getReturnDate())
+            .createdDate(Instant.now());
+    }
+}
@@ -7,11 +7,14 @@ import com.creditsuisse.task.service.criteria.RentalCriteria;
 import com.creditsuisse.task.service.dto.RentalDTO;
 import com.creditsuisse.task.service.mapper.RentalMapper;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,6 +32,8 @@ public class RentalQueryService extends QueryService<Rental> {
 
     private final Logger log = LoggerFactory.getLogger(RentalQueryService.class);
 
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     private final RentalRepository rentalRepository;
 
     private final RentalMapper rentalMapper;
@@ -63,6 +68,35 @@ public class RentalQueryService extends QueryService<Rental> {
         return rentalRepository.findAll(specification, page).map(rentalMapper::toDto);
     }
 
+    /**
+     * Return a {@link List} of {@link RentalDTO} which matches the criteria from the database, using keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The id of the last entity of the previous page, the first page is returned when it is {@code null}.
+     * @param size The maximum number of entities to return.
+     * @return the matching entities, ordered by id.
+     */
+    @Transactional(readOnly = true)
+    public List<RentalDTO> findByCriteria(RentalCriteria criteria, Long after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<Rental> specification = createSpecification(criteria);
+        return rentalMapper.toDto(rentalRepository.findAllAfter(specification, after, size));
+    }
+
+    /**
+     * Stream the {@link RentalDTO} which match the criteria from the database to the consumer, ordered by id.
+     * Rows are read from a database cursor, so the whole result set is never held in memory.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public void exportByCriteria(RentalCriteria criteria, Consumer<RentalDTO> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        final Specification<Rental> specification = createSpecification(criteria).and(fetchAssociations());
+        try (Stream<Rental> rentals = rentalRepository.streamAll(specification, Sort.by(Rental_.id.getName()), EXPORT_FETCH_SIZE)) {
+            rentals.map(rentalMapper::toDto).forEach(consumer);
+        }
+    }
+
     /**
      * Return the number of matching entities in the database.
      * @param criteria The object which holds all the filters, which the entities should match.
@@ -111,6 +145,17 @@ public class RentalQueryService extends QueryService<Rental> {
         return specification;
     }
 
+    /**
+     * Fetch the patron and the inventory in the streamed query itself rather than with one select per row.
+     */
+    private Specification<Rental> fetchAssociations() {
+        return (root, query, builder) -> {
+            root.fetch(Rental_.patron, JoinType.LEFT);
+            root.fetch(Rental_.inventory, JoinType.LEFT).fetch(Inventory_.book, JoinType.LEFT);
+            return null;
+        };
+    }
+
     @Transactional(readOnly = true)
     public Long countAvailability() {
         log.debug("count by criteria : {}");
@@ -1,6 +1,10 @@
 package com.creditsuisse.task.service;
 
+import com.creditsuisse.task.service.dto.BulkCheckoutDTO;
+import com.creditsuisse.task.service.dto.BulkRentalResultDTO;
+import com.creditsuisse.task.service.dto.BulkReturnDTO;
 import com.creditsuisse.task.service.dto.RentalDTO;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +21,24 @@ public interface RentalService {
      */
     RentalDTO save(RentalDTO rentalDTO);
 
+    /**
+     * Rent several inventory items to one patron in a single transaction.
+     * Items which do not exist or are already rent are reported and skipped.
+     *
+     * @param bulkCheckoutDTO the patron, rental date and inventory items to rent.
+     * @return the outcome of each inventory item, in request order.
+     */
+    List<BulkRentalResultDTO> checkout(BulkCheckoutDTO bulkCheckoutDTO);
+
+    /**
+     * Return several inventory items in a single transaction.
+     * Items which are not currently rent are reported and skipped.
+     *
+     * @param bulkReturnDTO the return date and inventory items to return.
+     * @return the outcome of each inventory item, in request order.
+     */
+    List<BulkRentalResultDTO> returnItems(BulkReturnDTO bulkReturnDTO);
+
     /**
      * Partially updates a rental.
      *
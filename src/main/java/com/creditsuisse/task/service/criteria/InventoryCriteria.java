@@ -26,12 +26,15 @@ public class InventoryCriteria implements Serializable, Criteria {
 
     private LongFilter id;
 
+    private StringFilter barcode;
+
     private LongFilter bookId;
 
     public InventoryCriteria() {}
 
     public InventoryCriteria(InventoryCriteria other) {
         this.id = other.id == null ? null : other.id.copy();
+        this.barcode = other.barcode == null ? null : other.barcode.copy();
         this.bookId = other.bookId == null ? null : other.bookId.copy();
     }
 
@@ -55,6 +58,21 @@ public class InventoryCriteria implements Serializable, Criteria {
         this.id = id;
     }
 
+    public StringFilter getBarcode() {
+        return barcode;
+    }
+
+    public StringFilter barcode() {
+        if (barcode == null) {
+            barcode = new StringFilter();
+        }
+        return barcode;
+    }
+
+    public void setBarcode(StringFilter barcode) {
+        this.barcode = barcode;
+    }
+
     public LongFilter getBookId() {
         return bookId;
     }
@@ -79,12 +97,12 @@ public class InventoryCriteria implements Serializable, Criteria {
             return false;
         }
         final InventoryCriteria that = (InventoryCriteria) o;
-        return Objects.equals(id, that.id) && Objects.equals(bookId, that.bookId);
+        return Objects.equals(id, that.id) && Objects.equals(barcode, that.barcode) && Objects.equals(bookId, that.bookId);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, bookId);
+        return Objects.hash(id, barcode, bookId);
     }
 
     // prettier-ignore
@@ -92,6 +110,7 @@ public class InventoryCriteria implements Serializable, Criteria {
     public String toString() {
         return "InventoryCriteria{" +
             (id != null ? "id=" + id + ", " : "") +
+            (barcode != null ? "barcode=" + barcode + ", " : "") +
             (bookId != null ? "bookId=" + bookId + ", " : "") +
             "}";
     }
@@ -0,0 +1,56 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import javax.validation.constraints.*;
+
+/**
+ * A DTO for checking out several inventory items to one patron at once.
+ */
+public class BulkCheckoutDTO implements Serializable {
+
+    @NotNull
+    private Long patronId;
+
+    @NotNull
+    private LocalDate rentalDate;
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@NotNull Long> inventoryIds;
+
+    public Long getPatronId() {
+        return patronId;
+    }
+
+    public void setPatronId(Long patronId) {
+        this.patronId = patronId;
+    }
+
+    public LocalDate getRentalDate() {
+        return rentalDate;
+    }
+
+    public void setRentalDate(LocalDate rentalDate) {
+        this.rentalDate = rentalDate;
+    }
+
+    public List<Long> getInventoryIds() {
+        return inventoryIds;
+    }
+
+    public void setInventoryIds(List<Long> inventoryIds) {
+        this.inventoryIds = inventoryIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkCheckoutDTO{" +
+            "patronId=" + getPatronId() +
+            ", rentalDate='" + getRentalDate() + "'" +
+            ", inventoryIds=" + getInventoryIds() +
+            "}";
+    }
+}
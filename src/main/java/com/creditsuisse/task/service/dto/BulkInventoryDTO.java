@@ -0,0 +1,58 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import javax.validation.constraints.*;
+
+/**
+ * A DTO for adding several copies of one book at once: either {@code count} copies without barcode,
+ * or one copy per barcode.
+ */
+public class BulkInventoryDTO implements Serializable {
+
+    public static final int MAX_COPIES = 10000;
+
+    @NotNull
+    private Long bookId;
+
+    @Min(1)
+    @Max(MAX_COPIES)
+    private Integer count;
+
+    @Size(min = 1, max = MAX_COPIES)
+    private List<@NotBlank @Size(max = 255) String> barcodes;
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    public List<String> getBarcodes() {
+        return barcodes;
+    }
+
+    public void setBarcodes(List<String> barcodes) {
+        this.barcodes = barcodes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkInventoryDTO{" +
+            "bookId=" + getBookId() +
+            ", count=" + getCount() +
+            ", barcodes=" + (getBarcodes() == null ? null : getBarcodes().size()) +
+            "}";
+    }
+}
@@ -0,0 +1,69 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of a bulk inventory intake: the created copies have the consecutive ids {@code firstId} to {@code lastId}.
+ */
+public class BulkInventoryResultDTO implements Serializable {
+
+    private Long bookId;
+
+    private int count;
+
+    private Long firstId;
+
+    private Long lastId;
+
+    public BulkInventoryResultDTO() {}
+
+    public BulkInventoryResultDTO(Long bookId, int count, Long firstId, Long lastId) {
+        this.bookId = bookId;
+        this.count = count;
+        this.firstId = firstId;
+        this.lastId = lastId;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public Long getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(Long firstId) {
+        this.firstId = firstId;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(Long lastId) {
+        this.lastId = lastId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkInventoryResultDTO{" +
+            "bookId=" + getBookId() +
+            ", count=" + getCount() +
+            ", firstId=" + getFirstId() +
+            ", lastId=" + getLastId() +
+            "}";
+    }
+}
@@ -0,0 +1,70 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of one inventory item of a bulk checkout or bulk return.
+ * {@code error} is {@code null} when the item succeeded.
+ */
+public class BulkRentalResultDTO implements Serializable {
+
+    public static final String ERROR_NOT_FOUND = "notfound";
+    public static final String ERROR_ALREADY_RENT = "alreadyrent";
+    public static final String ERROR_NOT_RENT = "notrent";
+
+    private Long inventoryId;
+
+    private Long rentalId;
+
+    private String error;
+
+    public BulkRentalResultDTO() {}
+
+    public BulkRentalResultDTO(Long inventoryId, Long rentalId, String error) {
+        this.inventoryId = inventoryId;
+        this.rentalId = rentalId;
+        this.error = error;
+    }
+
+    public static BulkRentalResultDTO success(Long inventoryId, Long rentalId) {
+        return new BulkRentalResultDTO(inventoryId, rentalId, null);
+    }
+
+    public static BulkRentalResultDTO failure(Long inventoryId, String error) {
+        return new BulkRentalResultDTO(inventoryId, null, error);
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    public void setInventoryId(Long inventoryId) {
+        this.inventoryId = inventoryId;
+    }
+
+    public Long getRentalId() {
+        return rentalId;
+    }
+
+    public void setRentalId(Long rentalId) {
+        this.rentalId = rentalId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkRentalResultDTO{" +
+            "inventoryId=" + getInventoryId() +
+            ", rentalId=" + getRentalId() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
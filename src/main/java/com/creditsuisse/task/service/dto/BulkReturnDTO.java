@@ -0,0 +1,44 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.List;
+import javax.validation.constraints.*;
+
+/**
+ * A DTO for returning several inventory items at once.
+ */
+public class BulkReturnDTO implements Serializable {
+
+    @NotNull
+    private LocalDate returnDate;
+
+    @NotEmpty
+    @Size(max = 500)
+    private List<@NotNull Long> inventoryIds;
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    public void setReturnDate(LocalDate returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public List<Long> getInventoryIds() {
+        return inventoryIds;
+    }
+
+    public void setInventoryIds(List<Long> inventoryIds) {
+        this.inventoryIds = inventoryIds;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkReturnDTO{" +
+            "returnDate='" + getReturnDate() + "'" +
+            ", inventoryIds=" + getInventoryIds() +
+            "}";
+    }
+}
@@ -0,0 +1,57 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A line of a catalog import which could not be imported, and why.
+ */
+public class CatalogImportRejectDTO implements Serializable {
+
+    private long line;
+
+    private String reason;
+
+    private String content;
+
+    public CatalogImportRejectDTO() {}
+
+    public CatalogImportRejectDTO(long line, String reason, String content) {
+        this.line = line;
+        this.reason = reason;
+        this.content = content;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogImportRejectDTO{" +
+            "line=" + getLine() +
+            ", reason='" + getReason() + "'" +
+            ", content='" + getContent() + "'" +
+            "}";
+    }
+}
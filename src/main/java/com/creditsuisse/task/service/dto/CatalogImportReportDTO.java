@@ -0,0 +1,95 @@
+package com.creditsuisse.task.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a catalog import: how many lines were read, and what became of them.
+ * {@code rejects} only holds the first rejected lines, {@code rejected} counts all of them.
+ */
+public class CatalogImportReportDTO implements Serializable {
+
+    private long lines;
+
+    private long inserted;
+
+    private long updated;
+
+    private long unchanged;
+
+    private long rejected;
+
+    private long durationMillis;
+
+    private List<CatalogImportRejectDTO> rejects = new ArrayList<>();
+
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(long unchanged) {
+        this.unchanged = unchanged;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public List<CatalogImportRejectDTO> getRejects() {
+        return rejects;
+    }
+
+    public void setRejects(List<CatalogImportRejectDTO> rejects) {
+        this.rejects = rejects;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CatalogImportReportDTO{" +
+            "lines=" + getLines() +
+            ", inserted=" + getInserted() +
+            ", updated=" + getUpdated() +
+            ", unchanged=" + getUnchanged() +
+            ", rejected=" + getRejected() +
+            ", durationMillis=" + getDurationMillis() +
+            "}";
+    }
+}
@@ -11,6 +11,8 @@ public class InventoryDTO implements Serializable {
 
     private Long id;
 
+    private String barcode;
+
     private BookDTO book;
 
     public Long getId() {
@@ -21,6 +23,14 @@ public class InventoryDTO implements Serializable {
         this.id = id;
     }
 
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
     public BookDTO getBook() {
         return book;
     }
@@ -55,6 +65,7 @@ public class InventoryDTO implements Serializable {
     public String toString() {
         return "InventoryDTO{" +
             "id=" + getId() +
+            ", barcode='" + getBarcode() + "'" +
             ", book=" + getBook() +
             "}";
     }
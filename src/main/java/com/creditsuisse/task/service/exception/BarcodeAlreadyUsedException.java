@@ -0,0 +1,10 @@
+package com.creditsuisse.task.service.exception;
+
+public class BarcodeAlreadyUsedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BarcodeAlreadyUsedException(Throwable cause) {
+        super("Barcode already used!", cause);
+    }
+}
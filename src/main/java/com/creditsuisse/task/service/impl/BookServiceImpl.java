@@ -2,15 +2,24 @@ package com.creditsuisse.task.service.impl;
 
 import com.creditsuisse.task.domain.Book;
 import com.creditsuisse.task.repository.BookRepository;
+import com.creditsuisse.task.service.BookSearchIndex;
 import com.creditsuisse.task.service.BookService;
+import com.creditsuisse.task.service.BookSuggestionIndex;
 import com.creditsuisse.task.service.dto.BookDTO;
 import com.creditsuisse.task.service.mapper.BookMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -26,9 +35,20 @@ public class BookServiceImpl implements BookService {
 
     private final BookMapper bookMapper;
 
-    public BookServiceImpl(BookRepository bookRepository, BookMapper bookMapper) {
+    private final BookSearchIndex bookSearchIndex;
+
+    private final BookSuggestionIndex bookSuggestionIndex;
+
+    public BookServiceImpl(
+        BookRepository bookRepository,
+        BookMapper bookMapper,
+        BookSearchIndex bookSearchIndex,
+        BookSuggestionIndex bookSuggestionIndex
+    ) {
         this.bookRepository = bookRepository;
         this.bookMapper = bookMapper;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggestionIndex = bookSuggestionIndex;
     }
 
     @Override
@@ -36,6 +56,8 @@ public class BookServiceImpl implements BookService {
         log.debug("Request to save Book : {}", bookDTO);
         Book book = bookMapper.toEntity(bookDTO);
         book = bookRepository.save(book);
+        bookSearchIndex.update(book.getId(), book.getTitle());
+        bookSuggestionIndex.update(book.getId(), book.getTitle(), book.getIsbn());
         return bookMapper.toDto(book);
     }
 
@@ -48,6 +70,8 @@ public class BookServiceImpl implements BookService {
             .map(
                 existingBook -> {
                     bookMapper.partialUpdate(existingBook, bookDTO);
+                    bookSearchIndex.update(existingBook.getId(), existingBook.getTitle());
+                    bookSuggestionIndex.update(existingBook.getId(), existingBook.getTitle(), existingBook.getIsbn());
                     return existingBook;
                 }
             )
@@ -62,6 +86,33 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findAll(pageable).map(bookMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search Books for query {}", query);
+        Page<Long> ids = bookSearchIndex.search(query, pageable);
+        Map<Long, Book> books = bookRepository
+            .findAllById(ids.getContent())
+            .stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+        // keep the rank order, dropping the books deleted by other instances
+        List<BookDTO> content = ids
+            .getContent()
+            .stream()
+            .map(books::get)
+            .filter(Objects::nonNull)
+            .map(bookMapper::toDto)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BookDTO> suggest(String query, int size) {
+        log.debug("Request to suggest Books for query {}", query);
+        return bookSuggestionIndex.suggest(query, size);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<BookDTO> findOne(Long id) {
@@ -73,5 +124,7 @@ public class BookServiceImpl implements BookService {
     public void delete(Long id) {
         log.debug("Request to delete Book : {}", id);
         bookRepository.deleteById(id);
+        bookSearchIndex.update(id, null);
+        bookSuggestionIndex.update(id, null, null);
     }
 }
@@ -1,17 +1,36 @@
 package com.creditsuisse.task.service.impl;
 
+import com.creditsuisse.task.config.Constants;
+import com.creditsuisse.task.config.audit.EntityAuditEvent;
+import com.creditsuisse.task.config.audit.EntityAuditEventWriter;
 import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.repository.IdGeneratorRepository;
 import com.creditsuisse.task.repository.InventoryRepository;
+import com.creditsuisse.task.repository.RentalRepository;
+import com.creditsuisse.task.security.SecurityUtils;
+import com.creditsuisse.task.service.BookAvailabilityService;
 import com.creditsuisse.task.service.InventoryService;
+import com.creditsuisse.task.service.dto.BulkInventoryDTO;
+import com.creditsuisse.task.service.dto.BulkInventoryResultDTO;
 import com.creditsuisse.task.service.dto.InventoryDTO;
+import com.creditsuisse.task.service.exception.BarcodeAlreadyUsedException;
 import com.creditsuisse.task.service.mapper.InventoryMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Service Implementation for managing {@link Inventory}.
@@ -20,25 +39,75 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class InventoryServiceImpl implements InventoryService {
 
+    private static final String INSERT_INVENTORY = "insert into inventory (id, barcode, book_id) values (?, ?, ?)";
+
+    private static final String BARCODE_CONSTRAINT = "ux_inventory__barcode";
+
     private final Logger log = LoggerFactory.getLogger(InventoryServiceImpl.class);
 
     private final InventoryRepository inventoryRepository;
 
     private final InventoryMapper inventoryMapper;
 
-    public InventoryServiceImpl(InventoryRepository inventoryRepository, InventoryMapper inventoryMapper) {
+    private final RentalRepository rentalRepository;
+
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final IdGeneratorRepository idGeneratorRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityAuditEventWriter entityAuditEventWriter;
+
+    public InventoryServiceImpl(
+        InventoryRepository inventoryRepository,
+        InventoryMapper inventoryMapper,
+        RentalRepository rentalRepository,
+        BookAvailabilityService bookAvailabilityService,
+        IdGeneratorRepository idGeneratorRepository,
+        JdbcTemplate jdbcTemplate,
+        EntityAuditEventWriter entityAuditEventWriter
+    ) {
         this.inventoryRepository = inventoryRepository;
         this.inventoryMapper = inventoryMapper;
+        this.rentalRepository = rentalRepository;
+        this.bookAvailabilityService = bookAvailabilityService;
+        this.idGeneratorRepository = idGeneratorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityAuditEventWriter = entityAuditEventWriter;
     }
 
     @Override
     public InventoryDTO save(InventoryDTO inventoryDTO) {
         log.debug("Request to save Inventory : {}", inventoryDTO);
         Inventory inventory = inventoryMapper.toEntity(inventoryDTO);
-        inventory = inventoryRepository.save(inventory);
+        Long previousBookId = inventoryDTO.getId() == null ? null : inventoryRepository.findBookIdById(inventoryDTO.getId());
+        inventory = saveAndFlush(inventory);
+        updateAvailability(inventory.getId(), previousBookId, getBookId(inventory));
         return inventoryMapper.toDto(inventory);
     }
 
+    @Override
+    public BulkInventoryResultDTO createAll(BulkInventoryDTO bulkInventoryDTO) {
+        log.debug("Request to save Inventories : {}", bulkInventoryDTO);
+        List<String> barcodes = bulkInventoryDTO.getBarcodes();
+        int count = barcodes == null ? bulkInventoryDTO.getCount() : barcodes.size();
+        // the ids are reserved as one block, bypassing the pooled-lo blocks of Hibernate, so that they are consecutive
+        long firstId = idGeneratorRepository.reserve("inventory", count);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] { firstId + i, barcodes == null ? null : barcodes.get(i), bulkInventoryDTO.getBookId() });
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_INVENTORY, rows);
+        } catch (DataIntegrityViolationException e) {
+            throw translateBarcodeViolation(e);
+        }
+        bookAvailabilityService.copiesAdded(bulkInventoryDTO.getBookId(), count);
+        auditCreatedAfterCommit(firstId, firstId + count - 1);
+        return new BulkInventoryResultDTO(bulkInventoryDTO.getBookId(), count, firstId, firstId + count - 1);
+    }
+
     @Override
     public Optional<InventoryDTO> partialUpdate(InventoryDTO inventoryDTO) {
         log.debug("Request to partially update Inventory : {}", inventoryDTO);
@@ -47,11 +116,13 @@ public class InventoryServiceImpl implements InventoryService {
             .findById(inventoryDTO.getId())
             .map(
                 existingInventory -> {
+                    Long previousBookId = getBookId(existingInventory);
                     inventoryMapper.partialUpdate(existingInventory, inventoryDTO);
-                    return existingInventory;
+                    Inventory inventory = saveAndFlush(existingInventory);
+                    updateAvailability(inventory.getId(), previousBookId, getBookId(inventory));
+                    return inventory;
                 }
             )
-            .map(inventoryRepository::save)
             .map(inventoryMapper::toDto);
     }
 
@@ -72,6 +143,67 @@ public class InventoryServiceImpl implements InventoryService {
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Inventory : {}", id);
+        Long bookId = inventoryRepository.findBookIdById(id);
+        boolean rent = rentalRepository.existsByInventory_IdAndReturnDateIsNull(id);
         inventoryRepository.deleteById(id);
+        if (bookId != null) {
+            bookAvailabilityService.copyRemoved(bookId, rent);
+        }
+    }
+
+    /**
+     * Flushes the inventory, so that a used barcode is reported here rather than when the transaction commits.
+     */
+    private Inventory saveAndFlush(Inventory inventory) {
+        try {
+            return inventoryRepository.saveAndFlush(inventory);
+        } catch (DataIntegrityViolationException e) {
+            throw translateBarcodeViolation(e);
+        }
+    }
+
+    private static RuntimeException translateBarcodeViolation(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        if (message != null && message.toLowerCase(Locale.ROOT).contains(BARCODE_CONSTRAINT)) {
+            return new BarcodeAlreadyUsedException(e);
+        }
+        return e;
+    }
+
+    /**
+     * Records the creation of the inventories inserted with JDBC, which the Hibernate audit listener does not see.
+     */
+    private void auditCreatedAfterCommit(long firstId, long lastId) {
+        String login = SecurityUtils.getCurrentUserLogin().orElse(Constants.SYSTEM);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    Instant now = Instant.now();
+                    for (long id = firstId; id <= lastId; id++) {
+                        entityAuditEventWriter.write(
+                            new EntityAuditEvent(Inventory.class.getSimpleName(), id, EntityAuditEvent.Action.CREATE, login, now)
+                        );
+                    }
+                }
+            }
+        );
+    }
+
+    private Long getBookId(Inventory inventory) {
+        return inventory.getBook() == null ? null : inventory.getBook().getId();
+    }
+
+    private void updateAvailability(Long inventoryId, Long previousBookId, Long bookId) {
+        if (Objects.equals(previousBookId, bookId)) {
+            return;
+        }
+        boolean rent = previousBookId != null && rentalRepository.existsByInventory_IdAndReturnDateIsNull(inventoryId);
+        if (previousBookId != null) {
+            bookAvailabilityService.copyRemoved(previousBookId, rent);
+        }
+        if (bookId != null) {
+            bookAvailabilityService.copyAdded(bookId, rent);
+        }
     }
 }
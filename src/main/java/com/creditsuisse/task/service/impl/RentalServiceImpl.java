@@ -1,17 +1,37 @@
 package com.creditsuisse.task.service.impl;
 
+import com.creditsuisse.task.domain.Patron;
 import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.repository.InventoryRepository;
+import com.creditsuisse.task.repository.PatronRepository;
 import com.creditsuisse.task.repository.RentalRepository;
+import com.creditsuisse.task.service.BookAvailabilityService;
 import com.creditsuisse.task.service.InventoryValidator;
+import com.creditsuisse.task.service.RentalEventService;
 import com.creditsuisse.task.service.RentalService;
+import com.creditsuisse.task.service.dto.BulkCheckoutDTO;
+import com.creditsuisse.task.service.dto.BulkRentalResultDTO;
+import com.creditsuisse.task.service.dto.BulkReturnDTO;
 import com.creditsuisse.task.service.dto.RentalDTO;
 import com.creditsuisse.task.service.mapper.RentalMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -29,22 +49,125 @@ public class RentalServiceImpl implements RentalService {
 
     private final InventoryValidator inventoryValidator;
 
-    public RentalServiceImpl(RentalRepository rentalRepository, RentalMapper rentalMapper, InventoryValidator inventoryValidator) {
+    private final InventoryRepository inventoryRepository;
+
+    private final PatronRepository patronRepository;
+
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final RentalEventService rentalEventService;
+
+    public RentalServiceImpl(
+        RentalRepository rentalRepository,
+        RentalMapper rentalMapper,
+        InventoryValidator inventoryValidator,
+        InventoryRepository inventoryRepository,
+        PatronRepository patronRepository,
+        BookAvailabilityService bookAvailabilityService,
+        RentalEventService rentalEventService
+    ) {
         this.rentalRepository = rentalRepository;
         this.rentalMapper = rentalMapper;
         this.inventoryValidator = inventoryValidator;
+        this.inventoryRepository = inventoryRepository;
+        this.patronRepository = patronRepository;
+        this.bookAvailabilityService = bookAvailabilityService;
+        this.rentalEventService = rentalEventService;
     }
 
     @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public RentalDTO save(RentalDTO rentalDTO) {
         log.debug("Request to save Rental : {}", rentalDTO);
         Rental rental = rentalMapper.toEntity(rentalDTO);
         inventoryValidator.assertIsReturned(rentalDTO.getInventory().getId(), rentalDTO.getId());
+        Long previouslyRentBookId = rentalDTO.getId() == null ? null : rentalRepository.findRentBookIdById(rentalDTO.getId());
         rental = rentalRepository.save(rental);
+        updateAvailability(previouslyRentBookId, getRentBookId(rental));
+        if (rentalDTO.getId() == null) {
+            rentalEventService.rentalCreated(rental);
+        } else {
+            rentalEventService.rentalUpdated(rental, previouslyRentBookId != null);
+        }
         return rentalMapper.toDto(rental);
     }
 
     @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BulkRentalResultDTO> checkout(BulkCheckoutDTO bulkCheckoutDTO) {
+        log.debug("Request to check out Inventories : {}", bulkCheckoutDTO);
+        final Set<Long> inventoryIds = new LinkedHashSet<>(bulkCheckoutDTO.getInventoryIds());
+        final Set<Long> existingIds = lockInventories(inventoryIds);
+        final Set<Long> rentIds = new HashSet<>(rentalRepository.findRentInventoryIdsByInventoryIdIn(inventoryIds));
+        final Patron patron = patronRepository.getOne(bulkCheckoutDTO.getPatronId());
+
+        final List<BulkRentalResultDTO> results = new ArrayList<>();
+        final List<BulkRentalResultDTO> checkedOutResults = new ArrayList<>();
+        final List<Rental> rentals = new ArrayList<>();
+        for (Long inventoryId : bulkCheckoutDTO.getInventoryIds()) {
+            if (!existingIds.contains(inventoryId)) {
+                results.add(BulkRentalResultDTO.failure(inventoryId, BulkRentalResultDTO.ERROR_NOT_FOUND));
+            } else if (!rentIds.add(inventoryId)) {
+                results.add(BulkRentalResultDTO.failure(inventoryId, BulkRentalResultDTO.ERROR_ALREADY_RENT));
+            } else {
+                BulkRentalResultDTO result = BulkRentalResultDTO.success(inventoryId, null);
+                results.add(result);
+                checkedOutResults.add(result);
+                rentals.add(
+                    new Rental()
+                        .rentalDate(bulkCheckoutDTO.getRentalDate())
+                        .patron(patron)
+                        .inventory(inventoryRepository.getOne(inventoryId))
+                );
+            }
+        }
+        if (rentals.isEmpty()) {
+            return results;
+        }
+
+        rentalRepository.saveAll(rentals);
+        rentalEventService.rentalsCreated(rentals);
+        for (int i = 0; i < rentals.size(); i++) {
+            checkedOutResults.get(i).setRentalId(rentals.get(i).getId());
+        }
+        final List<Long> rentInventoryIds = rentals.stream().map(rental -> rental.getInventory().getId()).collect(Collectors.toList());
+        countByBook(inventoryRepository.findBookIdsByIdIn(rentInventoryIds)).forEach(bookAvailabilityService::copiesRent);
+        return results;
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<BulkRentalResultDTO> returnItems(BulkReturnDTO bulkReturnDTO) {
+        log.debug("Request to return Inventories : {}", bulkReturnDTO);
+        final Set<Long> inventoryIds = new LinkedHashSet<>(bulkReturnDTO.getInventoryIds());
+        lockInventories(inventoryIds);
+        final Map<Long, Rental> rentalsByInventory = rentalRepository
+            .findAllByReturnDateIsNullAndInventory_IdIn(inventoryIds)
+            .stream()
+            .collect(Collectors.toMap(rental -> rental.getInventory().getId(), Function.identity(), (first, second) -> first));
+
+        final List<BulkRentalResultDTO> results = new ArrayList<>();
+        final List<Rental> returnedRentals = new ArrayList<>();
+        final List<Long> returnedBookIds = new ArrayList<>();
+        for (Long inventoryId : bulkReturnDTO.getInventoryIds()) {
+            Rental rental = rentalsByInventory.remove(inventoryId);
+            if (rental == null) {
+                results.add(BulkRentalResultDTO.failure(inventoryId, BulkRentalResultDTO.ERROR_NOT_RENT));
+            } else {
+                // flushed as batched updates at commit
+                rental.setReturnDate(bulkReturnDTO.getReturnDate());
+                results.add(BulkRentalResultDTO.success(inventoryId, rental.getId()));
+                returnedRentals.add(rental);
+                returnedBookIds.add(rental.getInventory().getBook().getId());
+            }
+        }
+        rentalEventService.rentalsReturned(returnedRentals);
+        countByBook(returnedBookIds).forEach(bookAvailabilityService::copiesReturned);
+        return results;
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Optional<RentalDTO> partialUpdate(RentalDTO rentalDTO) {
         log.debug("Request to partially update Rental : {}", rentalDTO);
 
@@ -52,11 +175,17 @@ public class RentalServiceImpl implements RentalService {
             .findById(rentalDTO.getId())
             .map(
                 existingRental -> {
+                    Long previouslyRentBookId = getRentBookId(existingRental);
                     rentalMapper.partialUpdate(existingRental, rentalDTO);
-                    return existingRental;
+                    if (existingRental.getInventory() != null) {
+                        inventoryValidator.assertIsReturned(existingRental.getInventory().getId(), existingRental.getId());
+                    }
+                    Rental rental = rentalRepository.save(existingRental);
+                    updateAvailability(previouslyRentBookId, getRentBookId(rental));
+                    rentalEventService.rentalUpdated(rental, previouslyRentBookId != null);
+                    return rental;
                 }
             )
-            .map(rentalRepository::save)
             .map(rentalMapper::toDto);
     }
 
@@ -77,6 +206,38 @@ public class RentalServiceImpl implements RentalService {
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Rental : {}", id);
+        Long rentBookId = rentalRepository.findRentBookIdById(id);
+        rentalRepository.findById(id).ifPresent(rentalEventService::rentalDeleted);
         rentalRepository.deleteById(id);
+        updateAvailability(rentBookId, null);
+    }
+
+    private Set<Long> lockInventories(Collection<Long> inventoryIds) {
+        return inventoryRepository.lockAllById(inventoryIds).stream().map(Number::longValue).collect(Collectors.toSet());
+    }
+
+    private Map<Long, Long> countByBook(List<Long> bookIds) {
+        final Map<Long, Long> counts = new HashMap<>();
+        bookIds.forEach(bookId -> counts.merge(bookId, 1L, Long::sum));
+        return counts;
+    }
+
+    private Long getRentBookId(Rental rental) {
+        if (rental.getReturnDate() != null || rental.getInventory() == null) {
+            return null;
+        }
+        return inventoryRepository.findBookIdById(rental.getInventory().getId());
+    }
+
+    private void updateAvailability(Long previouslyRentBookId, Long rentBookId) {
+        if (Objects.equals(previouslyRentBookId, rentBookId)) {
+            return;
+        }
+        if (previouslyRentBookId != null) {
+            bookAvailabilityService.copyReturned(previouslyRentBookId);
+        }
+        if (rentBookId != null) {
+            bookAvailabilityService.copyRent(rentBookId);
+        }
     }
 }
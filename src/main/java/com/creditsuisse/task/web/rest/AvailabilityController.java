@@ -6,23 +6,30 @@ import com.creditsuisse.task.service.criteria.RentalCriteria;
 import com.creditsuisse.task.service.dto.RentalDTO;
 
 import java.util.List;
+import java.util.Map;
 
+import javax.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.PaginationUtil;
 
 @RestController
 @RequestMapping("/api")
+@Validated
 public class AvailabilityController {
 
+    static final int MAX_BOOK_IDS = 1000;
+
     private final Logger log = LoggerFactory.getLogger(AvailabilityController.class);
 
     private final AvailabilityQueryService availabilityQueryService;
@@ -36,4 +43,17 @@ public class AvailabilityController {
         log.debug("REST request to get availability by criteria: {}", criteria);
         return ResponseEntity.ok().body(availabilityQueryService.countAvailability(criteria.getBookId()));
     }
+
+    /**
+     * {@code GET  /availability/books} : get the availability of each of the given books.
+     *
+     * @param bookIds the ids of the books, at most {@value #MAX_BOOK_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the available copies by book id in body,
+     * or with status {@code 400 (Bad Request)} if no or too many ids are given.
+     */
+    @GetMapping("/availability/books")
+    public ResponseEntity<Map<Long, Long>> getAvailabilities(@RequestParam @Size(min = 1, max = MAX_BOOK_IDS) List<Long> bookIds) {
+        log.debug("REST request to get availability of books: {}", bookIds);
+        return ResponseEntity.ok().body(availabilityQueryService.countAvailability(bookIds));
+    }
 }
@@ -1,11 +1,18 @@
 package com.creditsuisse.task.web.rest;
 
 import com.creditsuisse.task.repository.BookRepository;
+import com.creditsuisse.task.security.AuthoritiesConstants;
 import com.creditsuisse.task.service.BookQueryService;
 import com.creditsuisse.task.service.BookService;
+import com.creditsuisse.task.service.BookSuggestionIndex;
+import com.creditsuisse.task.service.CatalogImportService;
 import com.creditsuisse.task.service.criteria.BookCriteria;
 import com.creditsuisse.task.service.dto.BookDTO;
+import com.creditsuisse.task.service.dto.CatalogImportReportDTO;
 import com.creditsuisse.task.web.rest.errors.BadRequestAlertException;
+import com.creditsuisse.task.web.rest.util.KeysetPaginationUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -20,7 +27,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
@@ -47,10 +56,18 @@ public class BookResource {
 
     private final BookQueryService bookQueryService;
 
-    public BookResource(BookService bookService, BookRepository bookRepository, BookQueryService bookQueryService) {
+    private final CatalogImportService catalogImportService;
+
+    public BookResource(
+        BookService bookService,
+        BookRepository bookRepository,
+        BookQueryService bookQueryService,
+        CatalogImportService catalogImportService
+    ) {
         this.bookService = bookService;
         this.bookRepository = bookRepository;
         this.bookQueryService = bookQueryService;
+        this.catalogImportService = catalogImportService;
     }
 
     /**
@@ -73,6 +90,23 @@ public class BookResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /books/import} : Import books, inserting the new ISBNs and updating the title of the known ones.
+     * <p>
+     * The request body is streamed, one book per line as CSV ({@code isbn,title}) or as a JSON object.
+     *
+     * @param input the request body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the import report, including the first
+     * rejected lines.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/books/import", consumes = { "text/csv", "application/x-ndjson", MediaType.TEXT_PLAIN_VALUE })
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<CatalogImportReportDTO> importBooks(InputStream input) throws IOException {
+        log.debug("REST request to import Books");
+        return ResponseEntity.ok().body(catalogImportService.importBooks(input, reject -> {}));
+    }
+
     /**
      * {@code PUT  /books/:id} : Updates an existing book.
      *
@@ -148,11 +182,27 @@ public class BookResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last entity of the previous page, or {@code 0} for the first page; switches to keyset pagination
+     * when present, the pagination information then only giving the page size.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
      */
     @GetMapping("/books")
-    public ResponseEntity<List<BookDTO>> getAllBooks(BookCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<BookDTO>> getAllBooks(
+        BookCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = "after", required = false) Long after
+    ) {
         log.debug("REST request to get Books by criteria: {}", criteria);
+        if (after != null) {
+            List<BookDTO> bookList = bookQueryService.findByCriteria(criteria, after, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                bookList,
+                BookDTO::getId,
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(bookList);
+        }
         Page<BookDTO> page = bookQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -170,6 +220,36 @@ public class BookResource {
         return ResponseEntity.ok().body(bookQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /books/_search?query=:query} : search the books by title, best matches first.
+     * <p>
+     * Every word of the query must start a word of the title, accents and case being ignored.
+     *
+     * @param query the words of the title to search for.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     */
+    @GetMapping("/books/_search")
+    public ResponseEntity<List<BookDTO>> searchBooks(@RequestParam String query, Pageable pageable) {
+        log.debug("REST request to search Books for query {}", query);
+        Page<BookDTO> page = bookService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /books/suggest?q=:q} : suggest the books whose title or ISBN starts with the query, for autocompletion.
+     *
+     * @param q the start of a title or an ISBN, accents and case being ignored.
+     * @param size the maximum number of books to suggest, at most {@value BookSuggestionIndex#MAX_SUGGESTIONS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of books in body.
+     */
+    @GetMapping("/books/suggest")
+    public ResponseEntity<List<BookDTO>> suggestBooks(@RequestParam String q, @RequestParam(defaultValue = "10") int size) {
+        log.debug("REST request to suggest Books for query {}", q);
+        return ResponseEntity.ok().body(bookService.suggest(q, size));
+    }
+
     /**
      * {@code GET  /books/:id} : get the "id" book.
      *
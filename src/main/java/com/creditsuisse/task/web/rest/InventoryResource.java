@@ -1,13 +1,18 @@
 package com.creditsuisse.task.web.rest;
 
+import com.creditsuisse.task.repository.BookRepository;
 import com.creditsuisse.task.repository.InventoryRepository;
 import com.creditsuisse.task.service.InventoryQueryService;
 import com.creditsuisse.task.service.InventoryService;
 import com.creditsuisse.task.service.criteria.InventoryCriteria;
+import com.creditsuisse.task.service.dto.BulkInventoryDTO;
+import com.creditsuisse.task.service.dto.BulkInventoryResultDTO;
 import com.creditsuisse.task.service.dto.InventoryDTO;
 import com.creditsuisse.task.web.rest.errors.BadRequestAlertException;
+import com.creditsuisse.task.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -47,21 +52,26 @@ public class InventoryResource {
 
     private final InventoryQueryService inventoryQueryService;
 
+    private final BookRepository bookRepository;
+
     public InventoryResource(
         InventoryService inventoryService,
         InventoryRepository inventoryRepository,
-        InventoryQueryService inventoryQueryService
+        InventoryQueryService inventoryQueryService,
+        BookRepository bookRepository
     ) {
         this.inventoryService = inventoryService;
         this.inventoryRepository = inventoryRepository;
         this.inventoryQueryService = inventoryQueryService;
+        this.bookRepository = bookRepository;
     }
 
     /**
      * {@code POST  /inventories} : Create a new inventory.
      *
      * @param inventoryDTO the inventoryDTO to create.
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new inventoryDTO, or with status {@code 400 (Bad Request)} if the inventory has already an ID.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new inventoryDTO, or with status {@code 400 (Bad Request)} if the inventory has already an ID
+     * or if its barcode is already used.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/inventories")
@@ -77,13 +87,48 @@ public class InventoryResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /inventories/bulk} : Add several copies of a book at once.
+     *
+     * @param bulkInventoryDTO the book, and either the number of copies or the barcode of each copy.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the id range of the new inventories,
+     * or with status {@code 400 (Bad Request)} if the book does not exist, if neither or both of the count and the barcodes
+     * are given, or if a barcode is repeated or already used.
+     */
+    @PostMapping("/inventories/bulk")
+    public ResponseEntity<BulkInventoryResultDTO> createInventories(@Valid @RequestBody BulkInventoryDTO bulkInventoryDTO) {
+        log.debug("REST request to save Inventories : {}", bulkInventoryDTO);
+        List<String> barcodes = bulkInventoryDTO.getBarcodes();
+        if ((bulkInventoryDTO.getCount() == null) == (barcodes == null)) {
+            throw new BadRequestAlertException("Either a count or barcodes are required", ENTITY_NAME, "countorbarcodes");
+        }
+        if (!bookRepository.existsById(bulkInventoryDTO.getBookId())) {
+            throw new BadRequestAlertException("Entity not found", "book", "idnotfound");
+        }
+        if (barcodes != null) {
+            if (new HashSet<>(barcodes).size() != barcodes.size()) {
+                throw new BadRequestAlertException("Repeated barcode", ENTITY_NAME, "barcoderepeated");
+            }
+            if (inventoryRepository.existsByBarcodeIn(barcodes)) {
+                throw new BadRequestAlertException("Barcode already used", ENTITY_NAME, "barcodeexists");
+            }
+        }
+        BulkInventoryResultDTO result = inventoryService.createAll(bulkInventoryDTO);
+        return ResponseEntity
+            .status(HttpStatus.CREATED)
+            .headers(
+                HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getFirstId() + "-" + result.getLastId())
+            )
+            .body(result);
+    }
+
     /**
      * {@code PUT  /inventories/:id} : Updates an existing inventory.
      *
      * @param id the id of the inventoryDTO to save.
      * @param inventoryDTO the inventoryDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated inventoryDTO,
-     * or with status {@code 400 (Bad Request)} if the inventoryDTO is not valid,
+     * or with status {@code 400 (Bad Request)} if the inventoryDTO is not valid or its barcode is already used,
      * or with status {@code 500 (Internal Server Error)} if the inventoryDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -152,11 +197,27 @@ public class InventoryResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last entity of the previous page, or {@code 0} for the first page; switches to keyset pagination
+     * when present, the pagination information then only giving the page size.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of inventories in body.
      */
     @GetMapping("/inventories")
-    public ResponseEntity<List<InventoryDTO>> getAllInventories(InventoryCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<InventoryDTO>> getAllInventories(
+        InventoryCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = "after", required = false) Long after
+    ) {
         log.debug("REST request to get Inventories by criteria: {}", criteria);
+        if (after != null) {
+            List<InventoryDTO> inventoryList = inventoryQueryService.findByCriteria(criteria, after, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                inventoryList,
+                InventoryDTO::getId,
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(inventoryList);
+        }
         Page<InventoryDTO> page = inventoryQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -7,6 +7,7 @@ import com.creditsuisse.task.service.UserBooksQueryService;
 import com.creditsuisse.task.service.criteria.PatronCriteria;
 import com.creditsuisse.task.service.dto.PatronDTO;
 import com.creditsuisse.task.web.rest.errors.BadRequestAlertException;
+import com.creditsuisse.task.web.rest.util.KeysetPaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -156,11 +157,27 @@ public class PatronResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last entity of the previous page, or {@code 0} for the first page; switches to keyset pagination
+     * when present, the pagination information then only giving the page size.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of patrons in body.
      */
     @GetMapping("/patrons")
-    public ResponseEntity<List<PatronDTO>> getAllPatrons(PatronCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<PatronDTO>> getAllPatrons(
+        PatronCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = "after", required = false) Long after
+    ) {
         log.debug("REST request to get Patrons by criteria: {}", criteria);
+        if (after != null) {
+            List<PatronDTO> patronList = patronQueryService.findByCriteria(criteria, after, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                patronList,
+                PatronDTO::getId,
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(patronList);
+        }
         Page<PatronDTO> page = patronQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -0,0 +1,72 @@
+package com.creditsuisse.task.web.rest;
+
+import com.creditsuisse.task.service.RentalEventLog;
+import com.creditsuisse.task.web.rest.errors.BadRequestAlertException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller tailing the {@link RentalEventLog}, on the instance relaying the rental events to it.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "application.rental-events", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/api")
+public class RentalEventResource {
+
+    private static final String ENTITY_NAME = "rentalEvent";
+
+    private static final int MAX_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(RentalEventResource.class);
+
+    private final RentalEventLog rentalEventLog;
+
+    public RentalEventResource(RentalEventLog rentalEventLog) {
+        this.rentalEventLog = rentalEventLog;
+    }
+
+    /**
+     * {@code GET  /rental-events} : read the rental events from the given offset, one per line.
+     * <p>
+     * Each line holds the {@code offset} of the event in the log and the {@code event} itself; the offset of the
+     * next event to read is returned in the {@code X-Next-Offset} header.
+     *
+     * @param offset the offset of the first event to read.
+     * @param size the maximum number of events to read.
+     * @param response the response the events are written to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/rental-events")
+    public void getRentalEvents(
+        @RequestParam(value = "offset", defaultValue = "0") long offset,
+        @RequestParam(value = "size", defaultValue = "100") int size,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to get Rental events from offset: {}", offset);
+        if (offset < 0 || size < 1 || size > MAX_SIZE) {
+            throw new BadRequestAlertException("Invalid offset or size", ENTITY_NAME, "rangeinvalid");
+        }
+        final List<RentalEventLog.Record> records = rentalEventLog.read(offset, size);
+        final long nextOffset = records.isEmpty() ? offset : records.get(records.size() - 1).getOffset() + 1;
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("X-Next-Offset", Long.toString(nextOffset));
+        final OutputStream output = response.getOutputStream();
+        for (RentalEventLog.Record record : records) {
+            output.write(("{\"offset\":" + record.getOffset() + ",\"event\":").getBytes(StandardCharsets.UTF_8));
+            output.write(record.getPayload());
+            output.write("}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        output.flush();
+    }
+}
@@ -1,16 +1,28 @@
 package com.creditsuisse.task.web.rest;
 
+import com.creditsuisse.task.repository.PatronRepository;
 import com.creditsuisse.task.repository.RentalRepository;
 import com.creditsuisse.task.service.RentalQueryService;
 import com.creditsuisse.task.service.RentalService;
 import com.creditsuisse.task.service.criteria.RentalCriteria;
+import com.creditsuisse.task.service.dto.BulkCheckoutDTO;
+import com.creditsuisse.task.service.dto.BulkRentalResultDTO;
+import com.creditsuisse.task.service.dto.BulkReturnDTO;
 import com.creditsuisse.task.service.dto.RentalDTO;
 import com.creditsuisse.task.web.rest.errors.BadRequestAlertException;
+import com.creditsuisse.task.web.rest.util.KeysetPaginationUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -38,6 +50,12 @@ public class RentalResource {
 
     private static final String ENTITY_NAME = "rental";
 
+    private static final String EXPORT_FORMAT_NDJSON = "ndjson";
+
+    private static final String EXPORT_FORMAT_CSV = "csv";
+
+    private static final String CSV_HEADER = "id,rentalDate,returnDate,patronId,inventoryId";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -47,10 +65,22 @@ public class RentalResource {
 
     private final RentalQueryService rentalQueryService;
 
-    public RentalResource(RentalService rentalService, RentalRepository rentalRepository, RentalQueryService rentalQueryService) {
+    private final PatronRepository patronRepository;
+
+    private final ObjectWriter rentalWriter;
+
+    public RentalResource(
+        RentalService rentalService,
+        RentalRepository rentalRepository,
+        RentalQueryService rentalQueryService,
+        PatronRepository patronRepository,
+        ObjectMapper objectMapper
+    ) {
         this.rentalService = rentalService;
         this.rentalRepository = rentalRepository;
         this.rentalQueryService = rentalQueryService;
+        this.patronRepository = patronRepository;
+        this.rentalWriter = objectMapper.writerFor(RentalDTO.class);
     }
 
     @GetMapping("/rentals/available")
@@ -79,6 +109,34 @@ public class RentalResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /rentals/bulk-checkout} : Rent several inventory items to one patron.
+     *
+     * @param bulkCheckoutDTO the patron, rental date and inventory items to rent.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each inventory item,
+     * or with status {@code 400 (Bad Request)} if the patron does not exist.
+     */
+    @PostMapping("/rentals/bulk-checkout")
+    public ResponseEntity<List<BulkRentalResultDTO>> bulkCheckout(@Valid @RequestBody BulkCheckoutDTO bulkCheckoutDTO) {
+        log.debug("REST request to check out Inventories : {}", bulkCheckoutDTO);
+        if (!patronRepository.existsById(bulkCheckoutDTO.getPatronId())) {
+            throw new BadRequestAlertException("Entity not found", "patron", "idnotfound");
+        }
+        return ResponseEntity.ok().body(rentalService.checkout(bulkCheckoutDTO));
+    }
+
+    /**
+     * {@code POST  /rentals/bulk-return} : Return several inventory items.
+     *
+     * @param bulkReturnDTO the return date and inventory items to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each inventory item.
+     */
+    @PostMapping("/rentals/bulk-return")
+    public ResponseEntity<List<BulkRentalResultDTO>> bulkReturn(@Valid @RequestBody BulkReturnDTO bulkReturnDTO) {
+        log.debug("REST request to return Inventories : {}", bulkReturnDTO);
+        return ResponseEntity.ok().body(rentalService.returnItems(bulkReturnDTO));
+    }
+
     /**
      * {@code PUT  /rentals/:id} : Updates an existing rental.
      *
@@ -154,11 +212,27 @@ public class RentalResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
+     * @param after the id of the last entity of the previous page, or {@code 0} for the first page; switches to keyset pagination
+     * when present, the pagination information then only giving the page size.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rentals in body.
      */
     @GetMapping("/rentals")
-    public ResponseEntity<List<RentalDTO>> getAllRentals(RentalCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<RentalDTO>> getAllRentals(
+        RentalCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = "after", required = false) Long after
+    ) {
         log.debug("REST request to get Rentals by criteria: {}", criteria);
+        if (after != null) {
+            List<RentalDTO> rentalList = rentalQueryService.findByCriteria(criteria, after, pageable.getPageSize());
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                rentalList,
+                RentalDTO::getId,
+                pageable.getPageSize()
+            );
+            return ResponseEntity.ok().headers(headers).body(rentalList);
+        }
         Page<RentalDTO> page = rentalQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
@@ -176,6 +250,40 @@ public class RentalResource {
         return ResponseEntity.ok().body(rentalQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /rentals/export} : stream all the rentals matching the criteria, one per line.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param format the export format, {@code ndjson} (the default) or {@code csv}.
+     * @param response the response the rentals are written to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/rentals/export")
+    public void exportRentals(
+        RentalCriteria criteria,
+        @RequestParam(value = "format", defaultValue = EXPORT_FORMAT_NDJSON) String format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Rentals by criteria: {}, format: {}", criteria, format);
+        final boolean csv = EXPORT_FORMAT_CSV.equalsIgnoreCase(format);
+        if (!csv && !EXPORT_FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            throw new BadRequestAlertException("Invalid export format", ENTITY_NAME, "formatinvalid");
+        }
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"rentals." + (csv ? EXPORT_FORMAT_CSV : EXPORT_FORMAT_NDJSON) + "\""
+        );
+
+        final Writer writer = response.getWriter();
+        if (csv) {
+            writeLine(writer, CSV_HEADER);
+        }
+        rentalQueryService.exportByCriteria(criteria, rental -> writeLine(writer, csv ? toCsvLine(rental) : toJsonLine(rental)));
+        writer.flush();
+    }
+
     /**
      * {@code GET  /rentals/:id} : get the "id" rental.
      *
@@ -204,4 +312,32 @@ public class RentalResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private String toJsonLine(RentalDTO rental) {
+        try {
+            return rentalWriter.writeValueAsString(rental);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toCsvLine(RentalDTO rental) {
+        return String.join(
+            ",",
+            Objects.toString(rental.getId(), ""),
+            Objects.toString(rental.getRentalDate(), ""),
+            Objects.toString(rental.getReturnDate(), ""),
+            rental.getPatron() == null ? "" : Objects.toString(rental.getPatron().getId(), ""),
+            rental.getInventory() == null ? "" : Objects.toString(rental.getInventory().getId(), "")
+        );
+    }
+
+    private void writeLine(Writer writer, String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -150,6 +150,22 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(new InvalidPasswordException(), request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleItemAlreadyRentException(
+        com.creditsuisse.task.service.exception.ItemAlreadyRentException ex,
+        NativeWebRequest request
+    ) {
+        return handleBadRequestAlertException(new BadRequestAlertException(ex.getMessage(), "rental", "alreadyrent"), request);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleBarcodeAlreadyUsedException(
+        com.creditsuisse.task.service.exception.BarcodeAlreadyUsedException ex,
+        NativeWebRequest request
+    ) {
+        return handleBadRequestAlertException(new BadRequestAlertException(ex.getMessage(), "inventory", "barcodeexists"), request);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Problem> handleBadRequestAlertException(BadRequestAlertException ex, NativeWebRequest request) {
         return create(
@@ -0,0 +1,51 @@
+package com.creditsuisse.task.web.rest.util;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset pagination.
+ * <p>
+ * The next page is advertised with a {@code Link} header carrying the id of the last returned entity
+ * in its {@code after} parameter, and omitted on the last page. No total count is computed.
+ * <p>
+ * Ids start at 1, so the first page is requested with {@code after=0}. Without {@code after}, the endpoints keep their
+ * offset pagination, with its total count.
+ */
+public final class KeysetPaginationUtil {
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate keyset pagination headers for a page of entities ordered by id.
+     *
+     * @param uriBuilder The URI builder of the current request.
+     * @param content The entities of the page.
+     * @param idExtractor Extracts the id of an entity.
+     * @param size The requested page size.
+     * @param <T> The type of the entities.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        List<T> content,
+        Function<T, Long> idExtractor,
+        int size
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!content.isEmpty() && content.size() >= size) {
+            Long lastId = idExtractor.apply(content.get(content.size() - 1));
+            String next = uriBuilder
+                .replaceQueryParam("after", lastId)
+                .replaceQueryParam("size", size)
+                .replaceQueryParam("page")
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
@@ -2,11 +2,12 @@ import { IBook } from 'app/entities/book/book.model';
 
 export interface IInventory {
   id?: number;
+  barcode?: string | null;
   book?: IBook;
 }
 
 export class Inventory implements IInventory {
-  constructor(public id?: number, public book?: IBook) {}
+  constructor(public id?: number, public barcode?: string | null, public book?: IBook) {}
 }
 
 export function getInventoryIdentifier(inventory: IInventory): number | undefined {
@@ -21,6 +21,7 @@ export class InventoryUpdateComponent implements OnInit {
 
   editForm = this.fb.group({
     id: [],
+    barcode: [],
     book: [null, Validators.required],
   });
 
@@ -79,6 +80,7 @@ export class InventoryUpdateComponent implements OnInit {
   protected updateForm(inventory: IInventory): void {
     this.editForm.patchValue({
       id: inventory.id,
+      barcode: inventory.barcode,
       book: inventory.book,
     });
 
@@ -97,6 +99,7 @@ export class InventoryUpdateComponent implements OnInit {
     return {
       ...new Inventory(),
       id: this.editForm.get(['id'])!.value,
+      barcode: this.editForm.get(['barcode'])!.value,
       book: this.editForm.get(['book'])!.value,
     };
   }
@@ -0,0 +1,55 @@
+package com.creditsuisse.task.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.repository.BookAvailabilityRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests of the cache metrics exported by {@link CacheConfiguration}.
+ */
+@IntegrationTest
+class CacheConfigurationIT {
+
+    private static final String CACHE_NAME = BookAvailabilityRepository.AVAILABILITY_BY_BOOK_CACHE;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void everyCacheHasAGetTimeGauge() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            assertThat(meterRegistry.find("cache.gets.mean").tag("cache", cacheName).gauge()).as(cacheName).isNotNull();
+        }
+    }
+
+    @Test
+    void getsAreCountedAndTimed() {
+        Cache<Object, Object> cache = cacheManager.getCache(CACHE_NAME);
+        double missesBefore = misses().count();
+
+        cache.get(Long.MAX_VALUE);
+
+        // the statistics are enabled, so that the Spring Boot meters count the gets too
+        assertThat(misses().count()).isEqualTo(missesBefore + 1);
+        Gauge getTime = meterRegistry.find("cache.gets.mean").tag("cache", CACHE_NAME).gauge();
+        assertThat(getTime).isNotNull();
+        assertThat(getTime.value()).isNotNaN().isGreaterThanOrEqualTo(0);
+    }
+
+    private FunctionCounter misses() {
+        FunctionCounter misses = meterRegistry.find("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").functionCounter();
+        assertThat(misses).isNotNull();
+        return misses;
+    }
+}
@@ -0,0 +1,152 @@
+package com.creditsuisse.task.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Patron;
+import java.time.LocalDate;
+import java.util.function.Function;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the Hibernate second level cache, which the test configuration otherwise disables.
+ * <p>
+ * A missing cache region fails the startup, instead of being created with the default settings.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+    }
+)
+class SecondLevelCacheIT {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private Book book;
+
+    private Patron patron;
+
+    private Inventory inventory;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        book = new Book().title("Second level cache").isbn("second-level-cache-1");
+        patron = new Patron().name("Second level cache").dateOfBirth(LocalDate.ofEpochDay(0L)).phoneNumber("second-level-cache-1");
+        inventory = new Inventory().book(book);
+        inSession(
+            em -> {
+                em.persist(book);
+                em.persist(patron);
+                em.persist(inventory);
+                return null;
+            }
+        );
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                jdbcTemplate.update("delete from inventory where id = ?", inventory.getId());
+                jdbcTemplate.update("delete from book_availability where book_id = ?", book.getId());
+                jdbcTemplate.update("delete from book where id = ?", book.getId());
+                jdbcTemplate.update("delete from patron where id = ?", patron.getId());
+            }
+        );
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void everyCachedEntityHasItsRegion() {
+        assertThat(cacheManager.getCache(Book.class.getName())).isNotNull();
+        assertThat(cacheManager.getCache(Patron.class.getName())).isNotNull();
+        assertThat(cacheManager.getCache(Inventory.class.getName())).isNotNull();
+    }
+
+    @Test
+    void loadsAnEntityOfAnotherSessionFromTheCache() {
+        find(Book.class, book.getId());
+        find(Patron.class, patron.getId());
+        find(Inventory.class, inventory.getId());
+        assertThat(statistics.getSecondLevelCacheHitCount()).isZero();
+        assertThat(statistics.getSecondLevelCachePutCount()).isEqualTo(3);
+        assertThat(cacheManager.getCache(Book.class.getName()).iterator().hasNext()).isTrue();
+
+        assertThat(find(Book.class, book.getId()).getTitle()).isEqualTo("Second level cache");
+        assertThat(find(Patron.class, patron.getId()).getName()).isEqualTo("Second level cache");
+        assertThat(find(Inventory.class, inventory.getId()).getId()).isEqualTo(inventory.getId());
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(3);
+        assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(3);
+    }
+
+    @Test
+    void loadsTheUpdatedEntityAfterAnUpdate() {
+        find(Book.class, book.getId());
+
+        inSession(
+            em -> {
+                em.find(Book.class, book.getId()).setTitle("Second level cache, updated");
+                return null;
+            }
+        );
+
+        long misses = statistics.getSecondLevelCacheMissCount();
+        assertThat(find(Book.class, book.getId()).getTitle()).isEqualTo("Second level cache, updated");
+        assertThat(statistics.getSecondLevelCacheMissCount()).isEqualTo(misses);
+    }
+
+    /**
+     * Finds the entity in a new session, committed and closed before returning.
+     */
+    private <T> T find(Class<T> entityClass, Long id) {
+        return inSession(em -> em.find(entityClass, id));
+    }
+
+    private <T> T inSession(Function<EntityManager, T> work) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            T result = work.apply(em);
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+}
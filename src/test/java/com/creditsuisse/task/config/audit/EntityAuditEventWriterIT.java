@@ -0,0 +1,196 @@
+package com.creditsuisse.task.config.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link EntityAuditEventWriter}.
+ */
+@IntegrationTest
+class EntityAuditEventWriterIT {
+
+    private static final String ENTITY_TYPE = "EntityAuditEventWriterIT";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> jdbcTemplate.update("delete from entity_audit_event where entity_type = ?", ENTITY_TYPE)
+        );
+    }
+
+    @Test
+    void testWritesQueuedEventsInBatches() throws Exception {
+        EntityAuditEventWriter writer = writer(100, 10);
+        for (long id = 1; id <= 25; id++) {
+            writer.write(event(id));
+        }
+
+        writer.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (count() < 25 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        writer.shutdown();
+        assertThat(count()).isEqualTo(25);
+    }
+
+    @Test
+    void testWritesInItsOwnTransactionWhenTheQueueIsFull() throws Exception {
+        // not started, so the second event does not fit in the queue
+        EntityAuditEventWriter writer = writer(1, 10);
+
+        // like the Hibernate post-commit listener, write once the transaction has committed but is still bound
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status ->
+                TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            writer.write(event(1L));
+                            writer.write(event(2L));
+                        }
+                    }
+                )
+        );
+
+        // the first event is still queued, the second one was written and committed by the caller
+        assertThat(count()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select entity_id from entity_audit_event where entity_type = ?", Long.class, ENTITY_TYPE))
+            .containsExactly(2L);
+        writer.shutdown();
+    }
+
+    @Test
+    void testFlushesTheQueueOnShutdown() throws Exception {
+        EntityAuditEventWriter writer = writer(100, 2);
+        for (long id = 1; id <= 5; id++) {
+            writer.write(event(id));
+        }
+        assertThat(count()).isZero();
+
+        writer.shutdown();
+
+        assertThat(count()).isEqualTo(5);
+    }
+
+    @Test
+    void testRetriesAFailedWrite() throws Exception {
+        // not started, so the second event does not fit in the queue
+        EntityAuditEventWriter writer = writer(new FailingJdbcTemplate(jdbcTemplate.getDataSource(), 2), 1, 10);
+        writer.write(event(1L));
+
+        writer.write(event(2L));
+
+        assertThat(count()).isEqualTo(1);
+        assertThat(dropped()).isZero();
+        writer.shutdown();
+        assertThat(count()).isEqualTo(2);
+    }
+
+    @Test
+    void testCountsAndThrowsWhenTheLastAttemptFails() throws Exception {
+        EntityAuditEventWriter writer = writer(new FailingJdbcTemplate(jdbcTemplate.getDataSource(), Integer.MAX_VALUE), 1, 10);
+        writer.write(event(1L));
+
+        assertThatThrownBy(() -> writer.write(event(2L))).isInstanceOf(IllegalStateException.class);
+        assertThat(dropped()).isEqualTo(1);
+
+        // the queued event cannot be flushed either
+        assertThatThrownBy(writer::shutdown).isInstanceOf(IllegalStateException.class);
+        assertThat(dropped()).isEqualTo(2);
+        assertThat(count()).isZero();
+    }
+
+    @Test
+    void testBackgroundThreadRetriesItsBatchUntilItIsWritten() throws Exception {
+        EntityAuditEventWriter writer = writer(new FailingJdbcTemplate(jdbcTemplate.getDataSource(), 5), 100, 10);
+        for (long id = 1; id <= 5; id++) {
+            writer.write(event(id));
+        }
+
+        writer.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (count() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        writer.shutdown();
+        assertThat(count()).isEqualTo(5);
+        assertThat(dropped()).isZero();
+    }
+
+    private EntityAuditEventWriter writer(int queueCapacity, int batchSize) {
+        return writer(jdbcTemplate, queueCapacity, batchSize);
+    }
+
+    private EntityAuditEventWriter writer(JdbcTemplate writerJdbcTemplate, int queueCapacity, int batchSize) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setQueueCapacity(queueCapacity);
+        applicationProperties.getAudit().setBatchSize(batchSize);
+        applicationProperties.getAudit().setOfferTimeoutMillis(1);
+        applicationProperties.getAudit().setWriteAttempts(3);
+        applicationProperties.getAudit().setRetryBackoffMillis(1);
+        return new EntityAuditEventWriter(writerJdbcTemplate, transactionManager, applicationProperties, meterRegistry);
+    }
+
+    private double dropped() {
+        return meterRegistry.counter(EntityAuditEventWriter.DROPPED_EVENTS_METRIC).count();
+    }
+
+    private static EntityAuditEvent event(Long id) {
+        return new EntityAuditEvent(ENTITY_TYPE, id, EntityAuditEvent.Action.CREATE, "test", Instant.now());
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("select count(*) from entity_audit_event where entity_type = ?", Long.class, ENTITY_TYPE);
+    }
+
+    /**
+     * Fails the given number of batch writes, like a database which is briefly unavailable.
+     */
+    private static final class FailingJdbcTemplate extends JdbcTemplate {
+
+        private final AtomicInteger failures;
+
+        private FailingJdbcTemplate(DataSource dataSource, int failures) {
+            super(dataSource);
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize, ParameterizedPreparedStatementSetter<T> pss) {
+            if (failures.getAndDecrement() > 0) {
+                throw new TransientDataAccessResourceException("Connection lost");
+            }
+            return super.batchUpdate(sql, batchArgs, batchSize, pss);
+        }
+    }
+}
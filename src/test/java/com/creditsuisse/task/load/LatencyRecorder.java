@@ -0,0 +1,52 @@
+package com.creditsuisse.task.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and errors of one operation, recorded by a single worker thread and merged once the run is over.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+
+    private int count;
+
+    private int errors;
+
+    void record(long latencyNanos, boolean error) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (error) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        latencies = Arrays.copyOf(latencies, Math.max(latencies.length, count + other.count));
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the given percentile of the recorded latencies, in milliseconds; the recorder must not be modified afterwards.
+     */
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(latencies, 0, count);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return latencies[Math.max(index, 0)] / 1_000_000d;
+    }
+}
@@ -0,0 +1,351 @@
+package com.creditsuisse.task.load;
+
+import com.creditsuisse.task.security.AuthoritiesConstants;
+import com.creditsuisse.task.security.jwt.TokenProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * HTTP load driver replaying a mixed browse, checkout and return workload against a running application.
+ * <p>
+ * Boot the application first, for example with {@code ./mvnw -Dspring-boot.run.profiles=dev,generator}, then run:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.creditsuisse.task.load.LoadDriver -Dload.concurrency=32
+ * </pre>
+ * Every worker authenticates with its own JWT, minted with {@link TokenProvider} from the secret of the {@code dev} profile.
+ * The workload is seeded, so two runs with the same settings replay the same sequence of requests. Each run appends
+ * one line per operation to {@code target/load-results.csv}, tagged with {@code load.label}, to compare commits.
+ * <p>
+ * Settings, passed as system properties:
+ * <ul>
+ *   <li>{@code load.base-url}: application URL, defaults to {@code http://localhost:8080}</li>
+ *   <li>{@code load.concurrency}: number of workers, each running one request at a time, defaults to 16</li>
+ *   <li>{@code load.warmup} and {@code load.duration}: warmup and measurement durations in seconds, default to 10 and 60</li>
+ *   <li>{@code load.checkout-ratio}: share of checkouts, and of returns, in the workload, defaults to 0.1</li>
+ *   <li>{@code load.browse-operations}: comma separated read operations sharing the rest of the workload, defaults to
+ *   {@code AVAILABILITY,PATRON_BOOKS,RENTALS_BY_PATRON}</li>
+ *   <li>{@code load.entities}: number of books, patrons and inventory items the workload picks from, defaults to 1000</li>
+ *   <li>{@code load.seed}: workload seed, defaults to 42</li>
+ *   <li>{@code load.jwt-secret}: Base64 JWT secret of the application, defaults to the {@code dev} profile one</li>
+ *   <li>{@code load.label}: label of the run in the results file, defaults to {@code unlabelled}</li>
+ *   <li>{@code load.results}: results file, defaults to {@code target/load-results.csv}</li>
+ * </ul>
+ */
+public class LoadDriver {
+
+    enum Operation {
+        AVAILABILITY,
+        PATRON_BOOKS,
+        RENTALS_BY_PATRON,
+        CHECKOUT,
+        RETURN,
+    }
+
+    private static final String RESULTS_HEADER = "timestamp,label,concurrency,operation,count,errors,throughput,p50_ms,p99_ms";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private final String baseUrl = System.getProperty("load.base-url", "http://localhost:8080");
+
+    private final int concurrency = Integer.getInteger("load.concurrency", 16);
+
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+
+    private final Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 60));
+
+    private final double checkoutRatio = Double.parseDouble(System.getProperty("load.checkout-ratio", "0.1"));
+
+    private final Operation[] browseOperations = Arrays
+        .stream(System.getProperty("load.browse-operations", "AVAILABILITY,PATRON_BOOKS,RENTALS_BY_PATRON").split(","))
+        .map(String::trim)
+        .map(Operation::valueOf)
+        .toArray(Operation[]::new);
+
+    private final int entities = Integer.getInteger("load.entities", 1000);
+
+    private final long seed = Long.getLong("load.seed", 42);
+
+    private final String label = System.getProperty("load.label", "unlabelled");
+
+    private final Path results = Paths.get(System.getProperty("load.results", "target/load-results.csv"));
+
+    private final TokenProvider tokenProvider = createTokenProvider();
+
+    private long[] bookIds;
+
+    private long[] patronIds;
+
+    private long[] inventoryIds;
+
+    public static void main(String[] args) throws Exception {
+        new LoadDriver().run();
+    }
+
+    private void run() throws Exception {
+        String bootstrapToken = createToken("load-bootstrap");
+        bookIds = fetchIds("/api/books", bootstrapToken);
+        patronIds = fetchIds("/api/patrons", bootstrapToken);
+        inventoryIds = fetchIds("/api/inventories", bootstrapToken);
+        if (bookIds.length == 0 || patronIds.length == 0 || inventoryIds.length == 0) {
+            throw new IllegalStateException("The catalog is empty, generate one with the generator profile first");
+        }
+
+        System.out.printf("Running %d workers against %s: %s warmup, %s measurement%n", concurrency, baseUrl, warmup, duration);
+        Instant measureFrom = Instant.now().plus(warmup);
+        Instant measureUntil = measureFrom.plus(duration);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<Operation, LatencyRecorder>>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Worker worker = new Worker(i, measureFrom, measureUntil);
+            futures.add(executor.submit(worker::call));
+        }
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Future<Map<Operation, LatencyRecorder>> future : futures) {
+            future.get().forEach((operation, recorder) -> recorders.computeIfAbsent(operation, o -> new LatencyRecorder()).merge(recorder));
+        }
+        executor.shutdown();
+        report(recorders);
+    }
+
+    private void report(Map<Operation, LatencyRecorder> recorders) throws IOException {
+        LatencyRecorder total = new LatencyRecorder();
+        recorders.values().forEach(total::merge);
+        List<String> lines = new ArrayList<>();
+        String timestamp = Instant.now().toString();
+        System.out.printf("%-18s %10s %8s %12s %10s %10s%n", "operation", "count", "errors", "req/s", "p50 ms", "p99 ms");
+        for (Map.Entry<Operation, LatencyRecorder> entry : recorders.entrySet()) {
+            lines.add(report(timestamp, entry.getKey().name(), entry.getValue()));
+        }
+        lines.add(report(timestamp, "TOTAL", total));
+
+        boolean newFile = !Files.exists(results);
+        if (results.getParent() != null) {
+            Files.createDirectories(results.getParent());
+        }
+        try (
+            PrintWriter writer = new PrintWriter(
+                Files.newBufferedWriter(results, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+            )
+        ) {
+            if (newFile) {
+                writer.println(RESULTS_HEADER);
+            }
+            lines.forEach(writer::println);
+        }
+        System.out.printf("Results appended to %s%n", results.toAbsolutePath());
+    }
+
+    private String report(String timestamp, String operation, LatencyRecorder recorder) {
+        double throughput = recorder.getCount() / (double) duration.getSeconds();
+        double p50 = recorder.percentileMillis(50);
+        double p99 = recorder.percentileMillis(99);
+        System.out.printf(
+            "%-18s %10d %8d %12.1f %10.2f %10.2f%n",
+            operation,
+            recorder.getCount(),
+            recorder.getErrors(),
+            throughput,
+            p50,
+            p99
+        );
+        return String.format(
+            Locale.ROOT,
+            "%s,%s,%d,%s,%d,%d,%.1f,%.2f,%.2f",
+            timestamp,
+            label,
+            concurrency,
+            operation,
+            recorder.getCount(),
+            recorder.getErrors(),
+            throughput,
+            p50,
+            p99
+        );
+    }
+
+    private long[] fetchIds(String path, String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+            request(path + "?sort=id,asc&size=" + entities, token).GET().build(),
+            HttpResponse.BodyHandlers.ofString()
+        );
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " failed with status " + response.statusCode());
+        }
+        JsonNode content = objectMapper.readTree(response.body());
+        long[] ids = new long[content.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = content.get(i).get("id").asLong();
+        }
+        return ids;
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest
+            .newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Authorization", "Bearer " + token)
+            .header("Accept", "application/json")
+            .header("Content-Type", "application/json");
+    }
+
+    private String createToken(String login) {
+        return tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(login, null, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+    }
+
+    private static TokenProvider createTokenProvider() {
+        String secret = System.getProperty("load.jwt-secret");
+        if (secret == null) {
+            YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+            yaml.setResources(new ClassPathResource("config/application-dev.yml"));
+            secret = Objects.requireNonNull(yaml.getObject()).getProperty("jhipster.security.authentication.jwt.base64-secret");
+        }
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setBase64Secret(secret);
+        return new TokenProvider(jHipsterProperties);
+    }
+
+    /**
+     * Runs one request at a time until the end of the measurement, and keeps the rentals it checked out so it can return them.
+     */
+    private final class Worker {
+
+        private final SplittableRandom random;
+
+        private final String token;
+
+        private final Instant measureFrom;
+
+        private final Instant measureUntil;
+
+        private final Deque<ObjectNode> openRentals = new ArrayDeque<>();
+
+        private final Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+
+        private Worker(int index, Instant measureFrom, Instant measureUntil) {
+            this.random = new SplittableRandom(seed + index);
+            this.token = createToken("load-user-" + index);
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+        }
+
+        private Map<Operation, LatencyRecorder> call() {
+            Instant now = Instant.now();
+            while (now.isBefore(measureUntil)) {
+                Operation operation = nextOperation();
+                long start = System.nanoTime();
+                boolean error = !execute(operation);
+                long latency = System.nanoTime() - start;
+                now = Instant.now();
+                if (!now.isBefore(measureFrom) && now.isBefore(measureUntil)) {
+                    recorders.computeIfAbsent(operation, o -> new LatencyRecorder()).record(latency, error);
+                }
+            }
+            return recorders;
+        }
+
+        private Operation nextOperation() {
+            double draw = random.nextDouble();
+            if (draw < checkoutRatio) {
+                return Operation.CHECKOUT;
+            }
+            if (draw < 2 * checkoutRatio) {
+                return openRentals.isEmpty() ? Operation.CHECKOUT : Operation.RETURN;
+            }
+            return browseOperations[random.nextInt(browseOperations.length)];
+        }
+
+        /**
+         * Executes the operation and returns whether it succeeded; a checkout of a copy which is already rent is a success.
+         */
+        private boolean execute(Operation operation) {
+            try {
+                switch (operation) {
+                    case AVAILABILITY:
+                        return get("/api/availability?bookId=" + pick(bookIds)).statusCode() == 200;
+                    case PATRON_BOOKS:
+                        return get("/api/patrons/" + pick(patronIds) + "/books").statusCode() == 200;
+                    case RENTALS_BY_PATRON:
+                        return get("/api/rentals?patronId.equals=" + pick(patronIds) + "&size=20").statusCode() == 200;
+                    case CHECKOUT:
+                        return checkout();
+                    default:
+                        return giveBack();
+                }
+            } catch (IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private boolean checkout() throws IOException, InterruptedException {
+            ObjectNode rental = objectMapper.createObjectNode();
+            rental.put("rentalDate", LocalDate.now().toString());
+            rental.putObject("patron").put("id", pick(patronIds));
+            rental.putObject("inventory").put("id", pick(inventoryIds));
+            HttpResponse<String> response = send(request("/api/rentals", token).POST(body(rental)));
+            if (response.statusCode() == 201) {
+                openRentals.push((ObjectNode) objectMapper.readTree(response.body()));
+                return true;
+            }
+            return response.statusCode() == 400 && response.body().contains("alreadyrent");
+        }
+
+        private boolean giveBack() throws IOException, InterruptedException {
+            ObjectNode rental = openRentals.pop();
+            rental.put("returnDate", LocalDate.now().toString());
+            return send(request("/api/rentals/" + rental.get("id").asLong(), token).PUT(body(rental))).statusCode() == 200;
+        }
+
+        private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+            return send(request(path, token).GET());
+        }
+
+        private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpRequest.BodyPublisher body(JsonNode json) {
+            try {
+                return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(json));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private long pick(long[] ids) {
+            return ids[random.nextInt(ids.length)];
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.creditsuisse.task.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link IdGeneratorRepository}.
+ */
+@IntegrationTest
+class IdGeneratorRepositoryIT {
+
+    private static final int COUNT = 500;
+
+    @Autowired
+    private IdGeneratorRepository idGeneratorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Test
+    void testReserveDisjointBlocks() {
+        long first = idGeneratorRepository.reserve("book", COUNT);
+        long second = idGeneratorRepository.reserve("book", COUNT);
+
+        assertThat(first).isPositive();
+        assertThat(second).isGreaterThanOrEqualTo(first + COUNT);
+    }
+
+    @Test
+    @Transactional
+    void testHibernateDoesNotAllocateReservedIds() {
+        long first = idGeneratorRepository.reserve("book", COUNT);
+
+        for (int i = 0; i < 100; i++) {
+            Book book = bookRepository.saveAndFlush(new Book().title("Book " + i).isbn("id-generator-" + i));
+            assertThat(book.getId()).isNotBetween(first, first + COUNT - 1);
+        }
+    }
+
+    @Test
+    void testAdvancePastCallerIds() {
+        long first = idGeneratorRepository.reserve("book", 1);
+        idGeneratorRepository.advancePast("book", first + COUNT);
+        idGeneratorRepository.advancePast("book", first);
+
+        assertThat(idGeneratorRepository.reserve("book", 1)).isEqualTo(first + COUNT + 1);
+    }
+}
@@ -0,0 +1,222 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.domain.BookAvailability;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.repository.BookAvailabilityRepository;
+import com.creditsuisse.task.repository.BookRepository;
+import com.creditsuisse.task.repository.InventoryRepository;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link BookAvailabilityService}, with the second level cache that its rebuild must keep.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class BookAvailabilityServiceIT {
+
+    @Autowired
+    private BookAvailabilityService bookAvailabilityService;
+
+    @Autowired
+    private AvailabilityQueryService availabilityQueryService;
+
+    @Autowired
+    private BookAvailabilityRepository bookAvailabilityRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Book book;
+
+    @BeforeEach
+    public void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        book = bookRepository.saveAndFlush(new Book().title("Book availability").isbn("book-availability-1"));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                jdbcTemplate.update("delete from inventory where book_id = ?", book.getId());
+                jdbcTemplate.update("delete from book_availability where book_id = ?", book.getId());
+                jdbcTemplate.update("delete from book where id = ?", book.getId());
+            }
+        );
+        getAvailabilityByBookCache().evict(book.getId());
+    }
+
+    @Test
+    void testAdjustInsertsThenUpdatesTheRowOfTheBook() {
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copiesAdded(book.getId(), 3));
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copyRent(book.getId()));
+
+        assertThat(column("total_copies")).isEqualTo(3);
+        assertThat(column("copies_out")).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentFirstAdjustmentsOfABookAreBothCounted() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(
+                () ->
+                    transactionTemplate.executeWithoutResult(
+                        status -> {
+                            bookAvailabilityService.copyAdded(book.getId(), false);
+                            inserted.countDown();
+                            await(commit);
+                        }
+                    )
+            );
+            assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+            // finds no committed row to update either, and inserts the same one
+            Future<?> second = executor.submit(
+                () -> transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copyAdded(book.getId(), true))
+            );
+            Thread.sleep(200);
+            commit.countDown();
+
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(column("total_copies")).isEqualTo(2);
+        assertThat(column("copies_out")).isEqualTo(1);
+    }
+
+    @Test
+    void testLookupIsCachedUntilACommittedAdjustment() {
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copiesAdded(book.getId(), 3));
+        assertThat(availabilityQueryService.countAvailability(book.getId())).isEqualTo(3);
+
+        // changed behind the cache, so that only a cache miss sees it
+        transactionTemplate.executeWithoutResult(
+            status -> jdbcTemplate.update("update book_availability set total_copies = 10 where book_id = ?", book.getId())
+        );
+        assertThat(availabilityQueryService.countAvailability(book.getId())).isEqualTo(3);
+
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copyAdded(book.getId(), false));
+        assertThat(availabilityQueryService.countAvailability(book.getId())).isEqualTo(11);
+    }
+
+    @Test
+    void testLookupWhichReadBeforeACommittedAdjustmentIsNotCached() {
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copiesAdded(book.getId(), 3));
+
+        // a lookup which reads the projection, then only caches it once the adjustment below committed
+        long generation = bookAvailabilityService.getGeneration(book.getId());
+        BookAvailability stale = transactionTemplate.execute(status -> bookAvailabilityRepository.findById(book.getId()).get());
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copyRent(book.getId()));
+
+        assertThat(bookAvailabilityService.cacheIfCurrent(stale, generation)).isFalse();
+        assertThat(getAvailabilityByBookCache().get(book.getId())).isNull();
+        assertThat(availabilityQueryService.countAvailability(book.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void testLookupCachedBeforeACommittedAdjustmentIsEvicted() {
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copiesAdded(book.getId(), 3));
+
+        transactionTemplate.executeWithoutResult(
+            status -> {
+                bookAvailabilityService.copyRent(book.getId());
+                // a concurrent lookup, which reads the committed projection and caches it before this transaction commits
+                long generation = bookAvailabilityService.getGeneration(book.getId());
+                BookAvailability committed = new BookAvailability().bookId(book.getId()).totalCopies(3L).copiesOut(0L);
+                assertThat(bookAvailabilityService.cacheIfCurrent(committed, generation)).isTrue();
+            }
+        );
+
+        assertThat(getAvailabilityByBookCache().get(book.getId())).isNull();
+        assertThat(availabilityQueryService.countAvailability(book.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void testLookupWhichReadBeforeARebuildIsNotCached() {
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.copiesAdded(book.getId(), 3));
+        long generation = bookAvailabilityService.getGeneration(book.getId());
+        BookAvailability stale = transactionTemplate.execute(status -> bookAvailabilityRepository.findById(book.getId()).get());
+
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.rebuild());
+
+        assertThat(bookAvailabilityService.cacheIfCurrent(stale, generation)).isFalse();
+        assertThat(availabilityQueryService.countAvailability(book.getId())).isZero();
+    }
+
+    @Test
+    void testRebuildRepairsTheProjectionAndKeepsTheSecondLevelCache() {
+        inventoryRepository.saveAndFlush(new Inventory().book(book));
+        inventoryRepository.saveAndFlush(new Inventory().book(book));
+        transactionTemplate.executeWithoutResult(
+            status ->
+                jdbcTemplate.update("insert into book_availability (book_id, total_copies, copies_out) values (?, 5, 4)", book.getId())
+        );
+        // loaded in its own session, so that it is put in the second level cache
+        bookRepository.findById(book.getId());
+        assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> bookAvailabilityService.rebuild());
+
+        assertThat(column("total_copies")).isEqualTo(2);
+        assertThat(column("copies_out")).isEqualTo(0);
+        assertThat(entityManagerFactory.getCache().contains(Book.class, book.getId())).isTrue();
+    }
+
+    private Cache getAvailabilityByBookCache() {
+        return cacheManager.getCache(BookAvailabilityRepository.AVAILABILITY_BY_BOOK_CACHE);
+    }
+
+    private long column(String column) {
+        return jdbcTemplate.queryForObject("select " + column + " from book_availability where book_id = ?", Long.class, book.getId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
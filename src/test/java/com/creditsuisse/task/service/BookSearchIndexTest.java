@@ -0,0 +1,96 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        // outside of a transaction, updates are applied at once
+        index = new BookSearchIndex(null);
+        index.update(1L, "The Art of Computer Programming");
+        index.update(2L, "Programming Pearls");
+        index.update(3L, "The Pragmatic Programmer");
+        index.update(4L, "Les Misérables");
+        index.update(5L, "Art of the Deal");
+    }
+
+    @Test
+    void splitsTitlesIntoNormalizedTerms() {
+        assertThat(BookSearchIndex.terms("Les Misérables, tome 1")).containsExactly("les", "miserables", "tome", "1");
+        assertThat(BookSearchIndex.terms(" -- ")).isEmpty();
+    }
+
+    @Test
+    void matchesAllTermsIgnoringCaseAndAccents() {
+        assertThat(index.search("art PROGRAMMING", PageRequest.of(0, 10))).containsExactly(1L);
+        assertThat(index.search("misérables", PageRequest.of(0, 10))).containsExactly(4L);
+        assertThat(index.search("miserables deal", PageRequest.of(0, 10))).isEmpty();
+        assertThat(index.search("", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void ranksRareWordsFirst() {
+        assertThat(index.search("program", PageRequest.of(0, 10))).containsExactly(3L, 1L, 2L);
+        assertThat(index.search("the art", PageRequest.of(0, 10))).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void ranksCompleteWordsBeforePrefixes() {
+        index.update(6L, "Artificial Intelligence");
+
+        assertThat(index.search("art", PageRequest.of(0, 10))).containsExactly(1L, 5L, 6L);
+        assertThat(index.search("ar", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void paginatesWithTheTotalCount() {
+        Page<Long> page = index.search("pro", PageRequest.of(1, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page).containsExactly(2L);
+    }
+
+    @Test
+    void followsTitleChangesAndDeletions() {
+        index.update(2L, "More Pearls");
+        index.update(3L, null);
+
+        assertThat(index.search("programming", PageRequest.of(0, 10))).containsExactly(1L);
+        assertThat(index.search("pragmatic", PageRequest.of(0, 10))).isEmpty();
+        assertThat(index.search("more pearls", PageRequest.of(0, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void removesTheIndexedTitleWhenAnUpdateIsReplayed() {
+        // as when a rebuild replays the changes committed while it read the table
+        index.update(2L, "More Pearls");
+        index.update(2L, "More Pearls");
+        index.update(2L, "Pearls Again");
+
+        assertThat(index.search("more", PageRequest.of(0, 10))).isEmpty();
+        assertThat(index.search("pearls", PageRequest.of(0, 10))).containsExactly(2L);
+        assertThat(index.search("programming", PageRequest.of(0, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void expandsAPrefixToALimitedNumberOfTerms() {
+        for (long id = 100; id < 200; id++) {
+            index.update(id, "Volume" + id);
+        }
+
+        Page<Long> page = index.search("volume", PageRequest.of(0, 100));
+
+        // only the first 64 terms starting with the prefix are matched
+        assertThat(page.getTotalElements()).isEqualTo(64);
+        assertThat(page).startsWith(100L).endsWith(163L);
+        assertThat(index.search("volume19", PageRequest.of(0, 100))).hasSize(10);
+    }
+}
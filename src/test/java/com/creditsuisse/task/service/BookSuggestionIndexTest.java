@@ -0,0 +1,68 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.service.dto.BookDTO;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BookSuggestionIndexTest {
+
+    private BookSuggestionIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        // outside of a transaction, updates are applied at once
+        index = new BookSuggestionIndex(null);
+        index.update(1L, "The Pragmatic Programmer", "978-0201616224");
+        index.update(2L, "The Art of Computer Programming", "978-0201896831");
+        index.update(3L, "Ética", "978-8437604947");
+        index.update(4L, "Etudes", "979-1234567890");
+    }
+
+    @Test
+    void suggestsTitlesStartingWithTheQuery() {
+        assertThat(index.suggest("the ", 10)).extracting(BookDTO::getId).containsExactly(2L, 1L);
+        assertThat(index.suggest("THE   PRAG", 10)).extracting(BookDTO::getTitle).containsExactly("The Pragmatic Programmer");
+        assertThat(index.suggest("et", 10)).extracting(BookDTO::getId).containsExactly(3L, 4L);
+        assertThat(index.suggest("programmer", 10)).isEmpty();
+        assertThat(index.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestsIsbnsIgnoringSeparators() {
+        List<BookDTO> suggestions = index.suggest("978-02016", 10);
+
+        assertThat(suggestions).extracting(BookDTO::getId).containsExactly(1L);
+        assertThat(suggestions.get(0).getIsbn()).isEqualTo("978-0201616224");
+        assertThat(index.suggest("978 0", 10)).extracting(BookDTO::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void limitsTheNumberOfSuggestions() {
+        assertThat(index.suggest("97", 3)).hasSize(3);
+        assertThat(index.suggest("97", 0)).isEmpty();
+    }
+
+    @Test
+    void followsChangesBeforeAndAfterMergingThem() {
+        index.update(1L, "Pragmatic Thinking", "978-1934356050");
+        index.update(2L, null, null);
+
+        assertThat(index.suggest("the", 10)).isEmpty();
+        assertThat(index.suggest("prag", 10)).extracting(BookDTO::getIsbn).containsExactly("978-1934356050");
+
+        for (long id = 10; id < 2000; id++) {
+            index.update(id, "Volume " + id, "isbn-" + id);
+        }
+        index.update(10L, "Volume ten", "isbn-10");
+
+        assertThat(index.suggest("volume 199", 10))
+            .extracting(BookDTO::getId)
+            .containsExactly(199L, 1990L, 1991L, 1992L, 1993L, 1994L, 1995L, 1996L, 1997L, 1998L);
+        assertThat(index.suggest("volume t", 10)).extracting(BookDTO::getId).containsExactly(10L);
+        assertThat(index.suggest("prag", 10)).extracting(BookDTO::getId).containsExactly(1L);
+        assertThat(index.suggest("the", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,110 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.service.dto.CatalogImportRejectDTO;
+import com.creditsuisse.task.service.dto.CatalogImportReportDTO;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CatalogImportService}.
+ */
+@IntegrationTest
+class CatalogImportServiceIT {
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> jdbcTemplate.update("delete from book where isbn like 'import-%'")
+        );
+    }
+
+    @Test
+    void testImportCsvAndJsonLines() throws Exception {
+        List<CatalogImportRejectDTO> rejects = new ArrayList<>();
+
+        CatalogImportReportDTO report = importBooks(
+            rejects,
+            "title,isbn",
+            "First,import-1",
+            "\"Second, with a comma\",import-2",
+            "{\"isbn\": \"import-3\", \"title\": \"Third\"}",
+            "",
+            "Missing isbn,",
+            "{\"isbn\": \"import-4\""
+        );
+
+        assertThat(report.getLines()).isEqualTo(7);
+        assertThat(report.getInserted()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(2);
+        assertThat(rejects).extracting(CatalogImportRejectDTO::getLine).containsExactlyInAnyOrder(6L, 7L);
+        assertThat(report.getRejects()).hasSize(2);
+        assertThat(title("import-2")).isEqualTo("Second, with a comma");
+        assertThat(title("import-3")).isEqualTo("Third");
+    }
+
+    @Test
+    void testImportAgainUpdatesTitlesByIsbn() throws Exception {
+        importBooks(new ArrayList<>(), "import-1,First", "import-2,Second");
+        Long id = jdbcTemplate.queryForObject("select id from book where isbn = 'import-1'", Long.class);
+
+        CatalogImportReportDTO report = importBooks(new ArrayList<>(), "import-1,First edition", "import-2,Second", "import-5,Fifth");
+
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getUnchanged()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select id from book where isbn = 'import-1'", Long.class)).isEqualTo(id);
+        assertThat(title("import-1")).isEqualTo("First edition");
+    }
+
+    @Test
+    void testLastLineOfAnIsbnWinsAcrossBatches() throws Exception {
+        // more lines than a batch, so that the lines of each ISBN are spread over several batches
+        String[] lines = new String[2500];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "import-" + (i % 50) + ",Title " + i;
+        }
+
+        CatalogImportReportDTO report = importBooks(new ArrayList<>(), lines);
+
+        assertThat(report.getInserted()).isEqualTo(50);
+        assertThat(report.getRejected()).isZero();
+        for (int isbn = 0; isbn < 50; isbn++) {
+            assertThat(title("import-" + isbn)).isEqualTo("Title " + (2450 + isbn));
+        }
+    }
+
+    @Test
+    void testSplitCsvLine() {
+        assertThat(CatalogImportService.splitCsvLine("a,\"b \"\"c\"\", d\",")).containsExactly("a", "b \"c\", d", "");
+        assertThat(CatalogImportService.splitCsvLine("a,\"b")).isNull();
+    }
+
+    private CatalogImportReportDTO importBooks(List<CatalogImportRejectDTO> rejects, String... lines) throws Exception {
+        byte[] input = String.join("\n", lines).getBytes(StandardCharsets.UTF_8);
+        return catalogImportService.importBooks(new ByteArrayInputStream(input), rejects::add);
+    }
+
+    private String title(String isbn) {
+        return jdbcTemplate.queryForObject("select title from book where isbn = ?", String.class, isbn);
+    }
+}
@@ -0,0 +1,81 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.repository.BookRepository;
+import com.creditsuisse.task.service.dto.BulkInventoryDTO;
+import com.creditsuisse.task.service.dto.BulkInventoryResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link InventoryService}.
+ */
+@IntegrationTest
+class InventoryServiceIT {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Book book;
+
+    private BulkInventoryResultDTO result;
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> {
+                if (result != null) {
+                    jdbcTemplate.update(
+                        "delete from entity_audit_event where entity_type = 'Inventory' and entity_id between ? and ?",
+                        result.getFirstId(),
+                        result.getLastId()
+                    );
+                    jdbcTemplate.update("delete from inventory where book_id = ?", book.getId());
+                }
+                jdbcTemplate.update("delete from book_availability where book_id = ?", book.getId());
+                jdbcTemplate.update("delete from book where id = ?", book.getId());
+            }
+        );
+    }
+
+    @Test
+    void testCreateAllIsAuditedOnceCommitted() throws Exception {
+        book = bookRepository.saveAndFlush(new Book().title("Inventory service").isbn("inventory-service-1"));
+        BulkInventoryDTO bulkInventoryDTO = new BulkInventoryDTO();
+        bulkInventoryDTO.setBookId(book.getId());
+        bulkInventoryDTO.setCount(3);
+
+        result = inventoryService.createAll(bulkInventoryDTO);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (audited(result) < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(audited(result)).isEqualTo(3);
+    }
+
+    private long audited(BulkInventoryResultDTO result) {
+        return jdbcTemplate.queryForObject(
+            "select count(*) from entity_audit_event where entity_type = 'Inventory' and action = 'CREATE' and entity_id between ? and ?",
+            Long.class,
+            result.getFirstId(),
+            result.getLastId()
+        );
+    }
+}
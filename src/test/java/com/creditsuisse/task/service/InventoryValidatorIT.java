@@ -0,0 +1,87 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.repository.RentalRepository;
+import com.creditsuisse.task.service.exception.ItemAlreadyRentException;
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link InventoryValidator} and the open rental query it relies on.
+ */
+@IntegrationTest
+@Transactional
+class InventoryValidatorIT {
+
+    @Autowired
+    private InventoryValidator inventoryValidator;
+
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    private Inventory returned;
+
+    private Inventory rent;
+
+    private Rental returnedRental;
+
+    private Rental openRental;
+
+    @BeforeEach
+    public void initTest() {
+        Book book = new Book().title("Inventory validator").isbn("inventory-validator-1");
+        em.persist(book);
+        returned = new Inventory().book(book);
+        em.persist(returned);
+        rent = new Inventory().book(book);
+        em.persist(rent);
+        returnedRental = rental(returned, LocalDate.ofEpochDay(1L));
+        rental(rent, LocalDate.ofEpochDay(1L));
+        openRental = rental(rent, null);
+        em.flush();
+    }
+
+    @Test
+    void testFindRentIdsByInventoryIdReturnsTheOpenRentalsOfTheCopyOnly() {
+        assertThat(rentalRepository.findRentIdsByInventoryId(rent.getId())).containsExactly(openRental.getId());
+        assertThat(rentalRepository.findRentIdsByInventoryId(returned.getId())).isEmpty();
+    }
+
+    @Test
+    void testReturnedCopyCanBeRent() {
+        assertThatCode(() -> inventoryValidator.assertIsReturned(returned.getId(), null)).doesNotThrowAnyException();
+        assertThatCode(() -> inventoryValidator.assertIsReturned(returned.getId(), returnedRental.getId())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testOpenRentalOfTheCopyCanBeUpdated() {
+        assertThatCode(() -> inventoryValidator.assertIsReturned(rent.getId(), openRental.getId())).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testRentCopyCannotBeRentAgain() {
+        assertThatThrownBy(() -> inventoryValidator.assertIsReturned(rent.getId(), null)).isInstanceOf(ItemAlreadyRentException.class);
+        assertThatThrownBy(() -> inventoryValidator.assertIsReturned(rent.getId(), returnedRental.getId()))
+            .isInstanceOf(ItemAlreadyRentException.class);
+    }
+
+    private Rental rental(Inventory inventory, LocalDate returnDate) {
+        Rental rental = new Rental().rentalDate(LocalDate.ofEpochDay(0L)).returnDate(returnDate).inventory(inventory);
+        em.persist(rental);
+        return rental;
+    }
+}
@@ -0,0 +1,130 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.creditsuisse.task.config.ApplicationProperties;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RentalEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRecordsFromAnOffsetAcrossSegments() throws Exception {
+        RentalEventLog log = open();
+        log.append(payloads(0, 10));
+        log.append(payloads(10, 20));
+
+        List<RentalEventLog.Record> records = log.read(5, 10);
+
+        assertThat(log.getNextOffset()).isEqualTo(20);
+        assertThat(records).extracting(RentalEventLog.Record::getOffset).containsExactly(5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L);
+        assertThat(records).extracting(record -> new String(record.getPayload(), StandardCharsets.UTF_8)).startsWith("event-5");
+        assertThat(log.read(20, 10)).isEmpty();
+    }
+
+    @Test
+    void recoversTheNextOffsetWhenReopened() throws Exception {
+        RentalEventLog log = open();
+        log.append(payloads(0, 15));
+        log.close();
+
+        RentalEventLog reopened = open();
+        reopened.append(payloads(15, 16));
+
+        assertThat(reopened.getNextOffset()).isEqualTo(16);
+        assertThat(new String(reopened.read(15, 1).get(0).getPayload(), StandardCharsets.UTF_8)).isEqualTo("event-15");
+    }
+
+    @Test
+    void readsFromTheIndexedPositionInALargeSegment() throws Exception {
+        RentalEventLog log = open(1024 * 1024, 16);
+        log.append(payloads(0, 10_000));
+        log.close();
+
+        // reopened, so that the index is rebuilt from the segment
+        RentalEventLog reopened = open(1024 * 1024, 16);
+        List<RentalEventLog.Record> records = reopened.read(7777, 3);
+
+        assertThat(records).extracting(RentalEventLog.Record::getOffset).containsExactly(7777L, 7778L, 7779L);
+        assertThat(new String(records.get(0).getPayload(), StandardCharsets.UTF_8)).isEqualTo("event-7777");
+        assertThat(reopened.read(9999, 10)).extracting(RentalEventLog.Record::getOffset).containsExactly(9999L);
+    }
+
+    @Test
+    void deletesTheSegmentsBeyondTheRetainedOnes() throws Exception {
+        RentalEventLog log = open(64, 2);
+        log.append(payloads(0, 20));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(2);
+        }
+        // reads from a deleted offset start at the oldest retained record
+        List<RentalEventLog.Record> records = log.read(0, 100);
+        assertThat(records).isNotEmpty();
+        assertThat(records.get(0).getOffset()).isPositive();
+        assertThat(records.get(records.size() - 1).getOffset()).isEqualTo(19);
+    }
+
+    @Test
+    void leavesTheLogUnchangedWhenAnAppendFails() throws Exception {
+        RentalEventLog log = open();
+        log.append(payloads(0, 3));
+        // the segment the append rolls to cannot be created
+        Path blocked = Files.createDirectory(directory.resolve(String.format("%020d.log", 5)));
+
+        assertThatThrownBy(() -> log.append(payloads(3, 8))).isInstanceOf(RuntimeException.class);
+
+        assertThat(log.getNextOffset()).isEqualTo(3);
+        assertThat(log.read(0, 10)).extracting(RentalEventLog.Record::getOffset).containsExactly(0L, 1L, 2L);
+        Files.delete(blocked);
+        log.append(payloads(3, 4));
+        log.close();
+
+        RentalEventLog reopened = open();
+        assertThat(reopened.getNextOffset()).isEqualTo(4);
+        assertThat(new String(reopened.read(3, 1).get(0).getPayload(), StandardCharsets.UTF_8)).isEqualTo("event-3");
+    }
+
+    @Test
+    void rejectsAppendsOnceClosed() throws Exception {
+        RentalEventLog log = open();
+        log.append(payloads(0, 5));
+        log.close();
+        // closing twice is harmless
+        log.close();
+
+        assertThatThrownBy(() -> log.append(payloads(5, 6))).isInstanceOf(IllegalStateException.class);
+        assertThat(log.read(0, 10)).isEmpty();
+        assertThat(open().getNextOffset()).isEqualTo(5);
+    }
+
+    private RentalEventLog open() throws Exception {
+        // small segments, so that the records span several of them
+        return open(64, 16);
+    }
+
+    private RentalEventLog open(int segmentSizeBytes, int retainedSegments) throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRentalEvents().setLogPath(directory.toString());
+        applicationProperties.getRentalEvents().setSegmentSizeBytes(segmentSizeBytes);
+        applicationProperties.getRentalEvents().setRetainedSegments(retainedSegments);
+        RentalEventLog log = new RentalEventLog(applicationProperties);
+        log.open();
+        return log;
+    }
+
+    private List<byte[]> payloads(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> ("event-" + i).getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Patron;
+import com.creditsuisse.task.domain.RentalEvent;
+import com.creditsuisse.task.domain.enumeration.RentalEventType;
+import com.creditsuisse.task.repository.RentalEventRepository;
+import com.creditsuisse.task.service.dto.BulkCheckoutDTO;
+import com.creditsuisse.task.service.dto.BulkRentalResultDTO;
+import com.creditsuisse.task.web.rest.InventoryResourceIT;
+import com.creditsuisse.task.web.rest.PatronResourceIT;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests of the rental events, from the {@link RentalService} to the {@link RentalEventLog} through the
+ * {@link RentalEventRelay}.
+ */
+@IntegrationTest
+@Transactional
+class RentalEventRelayIT {
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private RentalEventRelay rentalEventRelay;
+
+    @Autowired
+    private RentalEventRepository rentalEventRepository;
+
+    @Autowired
+    private RentalEventLog rentalEventLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void relaysTheOutboxWrittenByTheRentalServiceToTheLog() throws Exception {
+        Patron patron = PatronResourceIT.createEntity(em);
+        em.persist(patron);
+        Inventory first = InventoryResourceIT.createEntity(em);
+        em.persist(first);
+        Inventory second = InventoryResourceIT.createEntity(em);
+        em.persist(second);
+        em.flush();
+        BulkCheckoutDTO bulkCheckoutDTO = new BulkCheckoutDTO();
+        bulkCheckoutDTO.setPatronId(patron.getId());
+        bulkCheckoutDTO.setRentalDate(LocalDate.ofEpochDay(0L));
+        bulkCheckoutDTO.setInventoryIds(Arrays.asList(first.getId(), second.getId()));
+
+        List<Long> rentalIds = rentalService
+            .checkout(bulkCheckoutDTO)
+            .stream()
+            .map(BulkRentalResultDTO::getRentalId)
+            .collect(Collectors.toList());
+
+        // the events are written in the transaction of the checkout
+        List<RentalEvent> events = outbox(rentalIds);
+        assertThat(events).hasSize(2).extracting(RentalEvent::getType).containsOnly(RentalEventType.CREATED);
+        assertThat(events).extracting(RentalEvent::getInventoryId).containsExactlyInAnyOrder(first.getId(), second.getId());
+
+        long offset = rentalEventLog.getNextOffset();
+        rentalEventRelay.relay();
+
+        // appended to the log, then deleted from the outbox; the relay may also append events committed by other tests
+        assertThat(outbox(rentalIds)).isEmpty();
+        List<JsonNode> relayed = rentalEventLog
+            .read(offset, 1000)
+            .stream()
+            .map(record -> toJson(record.getPayload()))
+            .filter(event -> rentalIds.contains(event.get("rentalId").asLong()))
+            .collect(Collectors.toList());
+        assertThat(relayed).extracting(event -> event.get("type").asText()).containsExactly("CREATED", "CREATED");
+        assertThat(relayed).extracting(event -> event.get("patronId").asLong()).containsOnly(patron.getId());
+    }
+
+    private List<RentalEvent> outbox(List<Long> rentalIds) {
+        return rentalEventRepository
+            .findAll()
+            .stream()
+            .filter(event -> rentalIds.contains(event.getRentalId()))
+            .collect(Collectors.toList());
+    }
+
+    private JsonNode toJson(byte[] payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
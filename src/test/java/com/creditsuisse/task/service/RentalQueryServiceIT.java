@@ -0,0 +1,81 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Patron;
+import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.service.criteria.RentalCriteria;
+import com.creditsuisse.task.service.dto.RentalDTO;
+import java.time.LocalDate;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link RentalQueryService}.
+ */
+@IntegrationTest
+@Transactional
+class RentalQueryServiceIT {
+
+    private static final int RENTAL_COUNT = 5;
+
+    @Autowired
+    private RentalQueryService rentalQueryService;
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void init() {
+        for (int i = 0; i < RENTAL_COUNT; i++) {
+            Book book = new Book().title("Book " + i).isbn("rental-query-service-" + i);
+            em.persist(book);
+            Inventory inventory = new Inventory().book(book);
+            em.persist(inventory);
+            Patron patron = new Patron().name("Patron " + i).dateOfBirth(LocalDate.ofEpochDay(0L)).phoneNumber("000");
+            em.persist(patron);
+            em.persist(new Rental().rentalDate(LocalDate.ofEpochDay(i)).patron(patron).inventory(inventory));
+        }
+        em.flush();
+        em.clear();
+
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void findPageByCriteriaInOneStatement() {
+        Page<RentalDTO> page = rentalQueryService.findByCriteria(new RentalCriteria(), PageRequest.of(0, 100));
+
+        assertThat(page.getContent()).hasSizeGreaterThanOrEqualTo(RENTAL_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAfterIdInOneStatement() {
+        List<RentalDTO> rentals = rentalQueryService.findByCriteria(new RentalCriteria(), 0L, 100);
+
+        assertThat(rentals).hasSizeGreaterThanOrEqualTo(RENTAL_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.creditsuisse.task.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Patron;
+import com.creditsuisse.task.repository.BookRepository;
+import com.creditsuisse.task.repository.InventoryRepository;
+import com.creditsuisse.task.repository.PatronRepository;
+import com.creditsuisse.task.service.dto.InventoryDTO;
+import com.creditsuisse.task.service.dto.PatronDTO;
+import com.creditsuisse.task.service.dto.RentalDTO;
+import com.creditsuisse.task.service.exception.ItemAlreadyRentException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link RentalService}, committing every call so that concurrent checkouts really race.
+ */
+@IntegrationTest
+class RentalServiceIT {
+
+    @Autowired
+    private RentalService rentalService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private PatronRepository patronRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Book book;
+
+    private Patron patron;
+
+    private Inventory first;
+
+    private Inventory second;
+
+    @BeforeEach
+    public void initTest() {
+        book = bookRepository.saveAndFlush(new Book().title("Rental service").isbn("rental-service-1"));
+        patron =
+            patronRepository.saveAndFlush(
+                new Patron().name("Rental service").dateOfBirth(LocalDate.ofEpochDay(0L)).phoneNumber("rental-service-1")
+            );
+        first = inventoryRepository.saveAndFlush(new Inventory().book(book));
+        second = inventoryRepository.saveAndFlush(new Inventory().book(book));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+            status -> {
+                jdbcTemplate.update("delete from rental_event where patron_id = ?", patron.getId());
+                jdbcTemplate.update("delete from rental where patron_id = ?", patron.getId());
+                jdbcTemplate.update("delete from inventory where book_id = ?", book.getId());
+                jdbcTemplate.update("delete from book_availability where book_id = ?", book.getId());
+                jdbcTemplate.update("delete from book where id = ?", book.getId());
+                jdbcTemplate.update("delete from patron where id = ?", patron.getId());
+            }
+        );
+    }
+
+    @Test
+    void testConcurrentCheckoutsOfACopyRentItOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<RentalDTO>> checkouts = new ArrayList<>();
+        try {
+            Callable<RentalDTO> checkout = () -> {
+                start.await(10, TimeUnit.SECONDS);
+                return rentalService.save(rental(first));
+            };
+            checkouts.add(executor.submit(checkout));
+            checkouts.add(executor.submit(checkout));
+            start.countDown();
+
+            int rent = 0;
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<RentalDTO> future : checkouts) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    rent++;
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+
+            assertThat(rent).isEqualTo(1);
+            assertThat(failures).hasSize(1).first().isInstanceOf(ItemAlreadyRentException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(openRentals(first)).isEqualTo(1);
+    }
+
+    @Test
+    void testPartialUpdateCannotMoveARentalToARentCopy() {
+        rentalService.save(rental(first));
+        RentalDTO rental = rentalService.save(rental(second));
+
+        RentalDTO patch = new RentalDTO();
+        patch.setId(rental.getId());
+        patch.setInventory(inventory(first));
+
+        assertThatThrownBy(() -> rentalService.partialUpdate(patch)).isInstanceOf(ItemAlreadyRentException.class);
+        assertThat(openRentals(first)).isEqualTo(1);
+        assertThat(openRentals(second)).isEqualTo(1);
+    }
+
+    private RentalDTO rental(Inventory inventory) {
+        PatronDTO patronDTO = new PatronDTO();
+        patronDTO.setId(patron.getId());
+        RentalDTO rentalDTO = new RentalDTO();
+        rentalDTO.setRentalDate(LocalDate.now());
+        rentalDTO.setPatron(patronDTO);
+        rentalDTO.setInventory(inventory(inventory));
+        return rentalDTO;
+    }
+
+    private static InventoryDTO inventory(Inventory inventory) {
+        InventoryDTO inventoryDTO = new InventoryDTO();
+        inventoryDTO.setId(inventory.getId());
+        return inventoryDTO;
+    }
+
+    private long openRentals(Inventory inventory) {
+        return jdbcTemplate.queryForObject(
+            "select count(*) from rental where inventory_id = ? and return_date is null",
+            Long.class,
+            inventory.getId()
+        );
+    }
+}
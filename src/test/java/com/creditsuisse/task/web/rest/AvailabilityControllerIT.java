@@ -0,0 +1,118 @@
+package com.creditsuisse.task.web.rest;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.creditsuisse.task.IntegrationTest;
+import com.creditsuisse.task.domain.Book;
+import com.creditsuisse.task.domain.BookAvailability;
+import com.creditsuisse.task.domain.Inventory;
+import com.creditsuisse.task.domain.Rental;
+import com.creditsuisse.task.service.BookAvailabilityService;
+import java.time.LocalDate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link AvailabilityController} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class AvailabilityControllerIT {
+
+    private static final String AVAILABILITY_API_URL = "/api/availability";
+    private static final String AVAILABILITY_BOOKS_API_URL = AVAILABILITY_API_URL + "/books";
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private BookAvailabilityService bookAvailabilityService;
+
+    @Autowired
+    private MockMvc restAvailabilityMockMvc;
+
+    @Test
+    @Transactional
+    void getAvailabilityCountsTheCopiesWithoutAnOpenRental() throws Exception {
+        Book book = BookResourceIT.createEntity(em);
+        em.persist(book);
+        Inventory rent = persistCopy(book);
+        rent(rent, null);
+        Inventory returnedThenRent = persistCopy(book);
+        rent(returnedThenRent, LocalDate.ofEpochDay(1L));
+        rent(returnedThenRent, null);
+        Inventory returnedTwice = persistCopy(book);
+        rent(returnedTwice, LocalDate.ofEpochDay(1L));
+        rent(returnedTwice, LocalDate.ofEpochDay(2L));
+        persistCopy(book);
+        Book otherBook = new Book().title("Other book").isbn("availability-other-book");
+        em.persist(otherBook);
+        rent(persistCopy(otherBook), null);
+        em.flush();
+        // the projection derived from the inventory and the open rentals
+        bookAvailabilityService.rebuild();
+
+        restAvailabilityMockMvc
+            .perform(get(AVAILABILITY_API_URL + "?bookId=" + book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string("2"));
+        restAvailabilityMockMvc
+            .perform(get(AVAILABILITY_API_URL + "?bookId=" + otherBook.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().string("0"));
+    }
+
+    @Test
+    @Transactional
+    void getAvailabilities() throws Exception {
+        Book book = BookResourceIT.createEntity(em);
+        em.persist(book);
+        em.persist(new BookAvailability().bookId(book.getId()).totalCopies(3L).copiesOut(1L));
+        em.flush();
+        long missingId = book.getId() + 1;
+
+        restAvailabilityMockMvc
+            .perform(get(AVAILABILITY_BOOKS_API_URL + "?bookIds=" + book.getId() + "," + missingId))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.['" + book.getId() + "']").value(2))
+            .andExpect(jsonPath("$.['" + missingId + "']").value(0));
+    }
+
+    @Test
+    void getAvailabilitiesWithoutBookIds() throws Exception {
+        restAvailabilityMockMvc.perform(get(AVAILABILITY_BOOKS_API_URL)).andExpect(status().isBadRequest());
+        restAvailabilityMockMvc.perform(get(AVAILABILITY_BOOKS_API_URL + "?bookIds=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAvailabilitiesOfTooManyBooks() throws Exception {
+        String bookIds = LongStream
+            .rangeClosed(1, AvailabilityController.MAX_BOOK_IDS + 1)
+            .mapToObj(Long::toString)
+            .collect(Collectors.joining(","));
+
+        restAvailabilityMockMvc
+            .perform(get(AVAILABILITY_BOOKS_API_URL).param("bookIds", bookIds))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.validation"));
+    }
+
+    private Inventory persistCopy(Book book) {
+        Inventory inventory = new Inventory().book(book);
+        em.persist(inventory);
+        return inventory;
+    }
+
+    private void rent(Inventory inventory, LocalDate returnDate) {
+        em.persist(new Rental().rentalDate(LocalDate.ofEpochDay(0L)).returnDate(returnDate).inventory(inventory));
+    }
+}
@@ -1,6 +1,7 @@
 package com.creditsuisse.task.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -174,6 +175,45 @@ class BookResourceIT {
             .andExpect(jsonPath("$.[*].isbn").value(hasItem(DEFAULT_ISBN)));
     }
 
+    @Test
+    @Transactional
+    void getAllBooksAfterId() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        Book nextBook = bookRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the page following the first book
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after=" + book.getId() + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(nextBook.getId().intValue()))
+            .andExpect(header().doesNotExist("X-Total-Count"));
+
+        // Get the page starting at the first book, which links to the next page
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after=" + (book.getId() - 1) + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(book.getId().intValue()))
+            .andExpect(header().string("Link", containsString("after=" + book.getId())));
+    }
+
+    @Test
+    @Transactional
+    void getAllBooksFromTheFirstKeysetPage() throws Exception {
+        // Initialize the database
+        bookRepository.saveAndFlush(book);
+        bookRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // Get the first page, which starts before every id
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "?after=0&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string("Link", containsString("after=")));
+    }
+
     @Test
     @Transactional
     void getBook() throws Exception {
@@ -648,4 +688,110 @@ class BookResourceIT {
         List<Book> bookList = bookRepository.findAll();
         assertThat(bookList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void searchBooksFollowingTheCommittedWrites() throws Exception {
+        // not transactional, so that the index is updated once each request commits
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setTitle("Quixotic Zymurgy Handbook");
+        bookDTO.setIsbn("book-search-it");
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(bookDTO)))
+            .andExpect(status().isCreated());
+        Long id = bookRepository.findAll().stream().filter(saved -> "book-search-it".equals(saved.getIsbn())).findFirst().get().getId();
+        try {
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?query=zymurgy quix"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[0].id").value(id.intValue()))
+                .andExpect(jsonPath("$.[0].title").value("Quixotic Zymurgy Handbook"));
+
+            bookDTO.setId(id);
+            bookDTO.setTitle("Quixotic Fermentation");
+            restBookMockMvc
+                .perform(
+                    put(ENTITY_API_URL_ID, id).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(bookDTO))
+                )
+                .andExpect(status().isOk());
+
+            restBookMockMvc.perform(get(ENTITY_API_URL + "/_search?query=zymurgy")).andExpect(jsonPath("$").isEmpty());
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?query=fermentation quixotic"))
+                .andExpect(jsonPath("$.[*].id").value(hasItem(id.intValue())));
+        } finally {
+            restBookMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNoContent());
+        }
+
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/_search?query=quixotic")).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void suggestBooksFollowingTheCommittedWrites() throws Exception {
+        // not transactional, so that the index is updated once each request commits
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setTitle("Xylophone Tuning Manual");
+        bookDTO.setIsbn("978-0-book-suggest-it");
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(bookDTO)))
+            .andExpect(status().isCreated());
+        Long id = bookRepository
+            .findAll()
+            .stream()
+            .filter(saved -> "978-0-book-suggest-it".equals(saved.getIsbn()))
+            .findFirst()
+            .get()
+            .getId();
+        try {
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/suggest?q=xylophone tu"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$.[0].id").value(id.intValue()))
+                .andExpect(jsonPath("$.[0].title").value("Xylophone Tuning Manual"))
+                .andExpect(jsonPath("$.[0].isbn").value("978-0-book-suggest-it"));
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/suggest?q=9780booksugg"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(id.intValue())));
+
+            BookDTO patchDTO = new BookDTO();
+            patchDTO.setId(id);
+            patchDTO.setTitle("Xylophone Repair");
+            restBookMockMvc
+                .perform(
+                    patch(ENTITY_API_URL_ID, id)
+                        .contentType("application/merge-patch+json")
+                        .content(TestUtil.convertObjectToJsonBytes(patchDTO))
+                )
+                .andExpect(status().isOk());
+
+            restBookMockMvc.perform(get(ENTITY_API_URL + "/suggest?q=xylophone tu")).andExpect(jsonPath("$").isEmpty());
+            restBookMockMvc
+                .perform(get(ENTITY_API_URL + "/suggest?q=xylophone rep"))
+                .andExpect(jsonPath("$.[0].id").value(id.intValue()))
+                .andExpect(jsonPath("$.[0].title").value("Xylophone Repair"));
+        } finally {
+            restBookMockMvc.perform(delete(ENTITY_API_URL_ID, id)).andExpect(status().isNoContent());
+        }
+
+        restBookMockMvc.perform(get(ENTITY_API_URL + "/suggest?q=xylophone")).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void suggestBooksIgnoresTheUncommittedWrites() throws Exception {
+        // rolled back at the end of the test, so that the index is never updated
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setTitle("Zeppelin Rigging Notes");
+        bookDTO.setIsbn("book-suggest-rolled-back");
+        restBookMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(bookDTO)))
+            .andExpect(status().isCreated());
+
+        restBookMockMvc
+            .perform(get(ENTITY_API_URL + "/suggest?q=zeppelin rig"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
 }
@@ -10,8 +10,11 @@ import com.creditsuisse.task.domain.Book;
 import com.creditsuisse.task.domain.Inventory;
 import com.creditsuisse.task.repository.InventoryRepository;
 import com.creditsuisse.task.service.criteria.InventoryCriteria;
+import com.creditsuisse.task.service.dto.BulkInventoryDTO;
+import com.creditsuisse.task.service.dto.BulkInventoryResultDTO;
 import com.creditsuisse.task.service.dto.InventoryDTO;
 import com.creditsuisse.task.service.mapper.InventoryMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,6 +38,7 @@ class InventoryResourceIT {
 
     private static final String ENTITY_API_URL = "/api/inventories";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_BULK = ENTITY_API_URL + "/bulk";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -135,6 +139,107 @@ class InventoryResourceIT {
         assertThat(inventoryList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    void createInventoryWithUsedBarcode() throws Exception {
+        inventoryRepository.saveAndFlush(inventory.barcode("USED-1"));
+        InventoryDTO inventoryDTO = inventoryMapper.toDto(createEntity(em).barcode("USED-1"));
+
+        restInventoryMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(inventoryDTO)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.barcodeexists"));
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateInventoriesWithCount() throws Exception {
+        int databaseSizeBeforeCreate = inventoryRepository.findAll().size();
+        BulkInventoryDTO bulkInventoryDTO = new BulkInventoryDTO();
+        bulkInventoryDTO.setBookId(inventory.getBook().getId());
+        bulkInventoryDTO.setCount(3);
+
+        String response = restInventoryMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(bulkInventoryDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.bookId").value(inventory.getBook().getId().intValue()))
+            .andExpect(jsonPath("$.count").value(3))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        // Validate the consecutive Inventories in the database
+        BulkInventoryResultDTO result = new ObjectMapper().readValue(response, BulkInventoryResultDTO.class);
+        assertThat(result.getLastId()).isEqualTo(result.getFirstId() + 2);
+        assertThat(inventoryRepository.findAll()).hasSize(databaseSizeBeforeCreate + 3);
+        assertThat(inventoryRepository.findAllById(List.of(result.getFirstId(), result.getFirstId() + 1, result.getLastId())))
+            .hasSize(3)
+            .allMatch(created -> created.getBook().getId().equals(inventory.getBook().getId()));
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateInventoriesWithBarcodes() throws Exception {
+        BulkInventoryDTO bulkInventoryDTO = new BulkInventoryDTO();
+        bulkInventoryDTO.setBookId(inventory.getBook().getId());
+        bulkInventoryDTO.setBarcodes(List.of("BULK-1", "BULK-2"));
+
+        restInventoryMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(bulkInventoryDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.count").value(2));
+
+        assertThat(inventoryRepository.findAll()).extracting(Inventory::getBarcode).contains("BULK-1", "BULK-2");
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateInventoriesRequiresEitherCountOrBarcodes() throws Exception {
+        int databaseSizeBeforeCreate = inventoryRepository.findAll().size();
+        BulkInventoryDTO bulkInventoryDTO = new BulkInventoryDTO();
+        bulkInventoryDTO.setBookId(inventory.getBook().getId());
+        bulkInventoryDTO.setCount(1);
+        bulkInventoryDTO.setBarcodes(List.of("BULK-1"));
+
+        restInventoryMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(bulkInventoryDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(inventoryRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    void bulkCreateInventoriesWithUsedBarcode() throws Exception {
+        inventoryRepository.saveAndFlush(inventory.barcode("BULK-1"));
+        int databaseSizeBeforeCreate = inventoryRepository.findAll().size();
+        BulkInventoryDTO bulkInventoryDTO = new BulkInventoryDTO();
+        bulkInventoryDTO.setBookId(inventory.getBook().getId());
+        bulkInventoryDTO.setBarcodes(List.of("BULK-1", "BULK-2"));
+
+        restInventoryMockMvc
+            .perform(
+                post(ENTITY_API_URL_BULK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(bulkInventoryDTO))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(inventoryRepository.findAll()).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     @Transactional
     void getAllInventories() throws Exception {
@@ -11,10 +11,15 @@ import com.creditsuisse.task.domain.Patron;
 import com.creditsuisse.task.domain.Rental;
 import com.creditsuisse.task.repository.RentalRepository;
 import com.creditsuisse.task.service.criteria.RentalCriteria;
+import com.creditsuisse.task.service.dto.BulkCheckoutDTO;
+import com.creditsuisse.task.service.dto.BulkReturnDTO;
 import com.creditsuisse.task.service.dto.RentalDTO;
 import com.creditsuisse.task.service.mapper.RentalMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -23,6 +28,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -46,6 +52,7 @@ class RentalResourceIT {
 
     private static final String ENTITY_API_URL = "/api/rentals";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+    private static final String ENTITY_API_URL_EXPORT = ENTITY_API_URL + "/export";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -56,6 +63,9 @@ class RentalResourceIT {
     @Autowired
     private RentalMapper rentalMapper;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private EntityManager em;
 
@@ -442,6 +452,110 @@ class RentalResourceIT {
         defaultRentalShouldNotBeFound("inventoryId.equals=" + (inventoryId + 1));
     }
 
+    @Test
+    @Transactional
+    void exportRentalsAsNdjson() throws Exception {
+        // Initialize the database
+        Patron patron = PatronResourceIT.createEntity(em);
+        em.persist(patron);
+        Inventory inventory = InventoryResourceIT.createEntity(em);
+        em.persist(inventory);
+        rental.setPatron(patron);
+        rental.setInventory(inventory);
+        rentalRepository.saveAndFlush(rental);
+
+        String export = restRentalMockMvc
+            .perform(get(ENTITY_API_URL_EXPORT + "?id.equals=" + rental.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rentals.ndjson\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String[] lines = export.split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode exported = objectMapper.readTree(lines[0]);
+        assertThat(exported.get("id").asLong()).isEqualTo(rental.getId());
+        assertThat(exported.get("rentalDate").asText()).isEqualTo(DEFAULT_RENTAL_DATE.toString());
+        assertThat(exported.get("returnDate").asText()).isEqualTo(DEFAULT_RETURN_DATE.toString());
+        assertThat(exported.get("patron").get("id").asLong()).isEqualTo(patron.getId());
+        assertThat(exported.get("inventory").get("id").asLong()).isEqualTo(inventory.getId());
+    }
+
+    @Test
+    @Transactional
+    void exportRentalsAsCsv() throws Exception {
+        // Initialize the database
+        Patron patron = PatronResourceIT.createEntity(em);
+        em.persist(patron);
+        rental.setPatron(patron);
+        rentalRepository.saveAndFlush(rental);
+
+        restRentalMockMvc
+            .perform(get(ENTITY_API_URL_EXPORT + "?format=csv&id.equals=" + rental.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"rentals.csv\""))
+            .andExpect(
+                content()
+                    .string(
+                        "id,rentalDate,returnDate,patronId,inventoryId\n" +
+                        rental.getId() +
+                        "," +
+                        DEFAULT_RENTAL_DATE +
+                        "," +
+                        DEFAULT_RETURN_DATE +
+                        "," +
+                        patron.getId() +
+                        ",\n"
+                    )
+            );
+    }
+
+    @Test
+    @Transactional
+    void exportRentalsOfMoreThanAFetch() throws Exception {
+        // Initialize the database, with more rentals than a fetch of the streamed query returns
+        Patron patron = PatronResourceIT.createEntity(em);
+        em.persist(patron);
+        Inventory inventory = InventoryResourceIT.createEntity(em);
+        em.persist(inventory);
+        int rentals = 2500;
+        for (int i = 0; i < rentals; i++) {
+            em.persist(createEntity(em).patron(patron).inventory(inventory));
+        }
+        em.flush();
+        em.clear();
+
+        String export = restRentalMockMvc
+            .perform(get(ENTITY_API_URL_EXPORT + "?patronId.equals=" + patron.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        // every rental once, in id order, with its associations although the persistence context is cleared in between
+        String[] lines = export.split("\n");
+        assertThat(lines).hasSize(rentals);
+        long previousId = 0;
+        for (String line : lines) {
+            JsonNode exported = objectMapper.readTree(line);
+            assertThat(exported.get("id").asLong()).isGreaterThan(previousId);
+            assertThat(exported.get("inventory").get("id").asLong()).isEqualTo(inventory.getId());
+            previousId = exported.get("id").asLong();
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportRentalsWithAnInvalidFormat() throws Exception {
+        restRentalMockMvc
+            .perform(get(ENTITY_API_URL_EXPORT + "?format=xml"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.formatinvalid"));
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -709,6 +823,53 @@ class RentalResourceIT {
         assertThat(rentalList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    @Transactional
+    void bulkCheckoutAndReturn() throws Exception {
+        // Initialize the database
+        Patron patron = PatronResourceIT.createEntity(em);
+        em.persist(patron);
+        Inventory first = InventoryResourceIT.createEntity(em);
+        em.persist(first);
+        Inventory second = InventoryResourceIT.createEntity(em);
+        em.persist(second);
+        em.flush();
+        Long missingId = second.getId() + 1;
+
+        BulkCheckoutDTO bulkCheckoutDTO = new BulkCheckoutDTO();
+        bulkCheckoutDTO.setPatronId(patron.getId());
+        bulkCheckoutDTO.setRentalDate(DEFAULT_RENTAL_DATE);
+        bulkCheckoutDTO.setInventoryIds(Arrays.asList(first.getId(), second.getId(), first.getId(), missingId));
+        restRentalMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/bulk-checkout")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(bulkCheckoutDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].rentalId").isNotEmpty())
+            .andExpect(jsonPath("$.[1].rentalId").isNotEmpty())
+            .andExpect(jsonPath("$.[2].error").value("alreadyrent"))
+            .andExpect(jsonPath("$.[3].error").value("notfound"));
+        assertThat(rentalRepository.findRentInventoryIdsByInventoryIdIn(Arrays.asList(first.getId(), second.getId()))).hasSize(2);
+
+        BulkReturnDTO bulkReturnDTO = new BulkReturnDTO();
+        bulkReturnDTO.setReturnDate(UPDATED_RETURN_DATE);
+        bulkReturnDTO.setInventoryIds(Arrays.asList(first.getId(), first.getId()));
+        restRentalMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/bulk-return")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(bulkReturnDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].rentalId").isNotEmpty())
+            .andExpect(jsonPath("$.[1].error").value("notrent"));
+        em.flush();
+        assertThat(rentalRepository.findRentInventoryIdsByInventoryIdIn(Arrays.asList(first.getId(), second.getId())))
+            .containsExactly(second.getId());
+    }
+
     @Test
     @Transactional
     void deleteRental() throws Exception {